@@ -0,0 +1,82 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial;
+
+/**
+ * The {@code ArrayEncoding} enum selects how the components of a primitive array are laid out,
+ * through {@link CcArray#encoding()}.
+ * <p>
+ * Every encoding keeps the count semantics of the array: a varint length first for variable size arrays,
+ * or exactly {@link CcArray#count()} components, padded with zeros, for fixed size ones.
+ * An encoding that doesn't apply to the type of the field is ignored.
+ * </p>
+ *
+ * <h2>Examples:</h2>
+ * <pre>{@code
+ * @CcSerializable
+ * public class PostingList {
+ *     @CcArray(encoding = ArrayEncoding.STREAM_VBYTE)
+ *     private int[] documents;
+ * }
+ * }</pre>
+ */
+public enum ArrayEncoding {
+
+    /**
+     * Components are written one after the other, as varints or fixed size values.
+     */
+    DEFAULT,
+
+    /**
+     * Group varint, for {@code int[]} and {@code long[]}. Each group of four ints starts with a control byte
+     * holding the length of each value, 1 to 4 bytes, followed by the values. Longs use a control byte for each
+     * pair of values, with 1 to 8 bytes each. The encoded size is written first, so the whole group sequence is
+     * read at once and decoded with a lookup table instead of a branch per byte.
+     */
+    GROUP_VARINT,
+
+    /**
+     * Stream VByte, for {@code int[]} and {@code long[]}. The same control bytes as {@link #GROUP_VARINT}, all
+     * of them first, followed by all the values. The size of the data section is known from the control bytes.
+     */
+    STREAM_VBYTE,
+
+    /**
+     * XOR with the previous value, for {@code double[]} and {@code float[]}, as in Facebook's Gorilla. The first
+     * value is written as is, then a single bit tells a value is repeated, otherwise only the bits between the
+     * leading and trailing zeros of the XOR are written, reusing the previous window when they fit in it.
+     * Slowly varying series take a few bits per value.
+     */
+    XOR_FLOAT,
+
+    /**
+     * Frame of reference bit packing, for {@code int[]} and collections of {@code Integer}. The minimum and the
+     * number of bits of the largest difference with it are written once, followed by the differences packed
+     * in blocks of 128 values, each block taking exactly 16 bytes per bit. Fits values within a narrow range.
+     */
+    FRAME_OF_REFERENCE,
+
+    /**
+     * Run-length encoding, for {@code byte[]}, {@code char[]}, {@code int[]}, {@code long[]}, {@code float[]} and
+     * {@code double[]}. Components are written as runs, each starting with a varint holding its length and whether
+     * it's a literal run, followed by its values, or a run of three or more equal values, followed by that value once.
+     * Sparse arrays, and the zeros padding fixed size arrays, shrink to a few bytes.
+     */
+    RUN_LENGTH;
+
+}
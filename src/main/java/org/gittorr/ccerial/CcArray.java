@@ -58,6 +58,21 @@ public @interface CcArray {
      */
     int componentCount() default -1;
 
+    /**
+     * Encode int and long components, of arrays or collections, as ZigZag varints. Implies variable size components
+     */
+    boolean componentZigZag() default false;
+
+    /**
+     * The layout of the components of a primitive array, see {@link ArrayEncoding}
+     */
+    ArrayEncoding encoding() default ArrayEncoding.DEFAULT;
+
+    /**
+     * Write int and long components as differences with the previous ones, see {@link DeltaEncoding}. Takes precedence over {@link #encoding()}
+     */
+    DeltaEncoding delta() default DeltaEncoding.NONE;
+
     /**
      * The collection implementation for collections. Default is Collection, Ccerial will determine automatically
      */
@@ -59,4 +59,11 @@ public @interface CcSerializable {
      */
     boolean includeHeader() default false;
 
+    /**
+     * Write a bitmap of the fields that aren't null before the values, and then only the values of those fields.
+     * Primitive fields are always written and take no bit. Null fields cost a single bit and are read back as null,
+     * instead of being written as zero or empty.
+     */
+    boolean presenceBitmap() default false;
+
 }
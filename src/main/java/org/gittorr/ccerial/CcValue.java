@@ -54,4 +54,12 @@ public @interface CcValue {
      * @return the fully qualified class name of the concrete implementation.
      */
     String className() default "";
+
+    /**
+     * Encodes an int or long field as a ZigZag varint, so small negative values take as few bytes as small
+     * positive ones. Implies a variable size.
+     *
+     * @return {@code true} to use the ZigZag encoding.
+     */
+    boolean zigZag() default false;
 }
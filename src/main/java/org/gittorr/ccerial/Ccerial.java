@@ -17,19 +17,9 @@
  */
 package org.gittorr.ccerial;
 
-import org.gittorr.ccerial.utils.ClassIdentifierGenerator;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.util.Enumeration;
-import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
 
 /**
  * The {@code Ccerial} class is the main entry point for the Ccerial serialization framework.
@@ -60,85 +50,89 @@ import java.util.Map;
  */
 public final class Ccerial {
 
-    private static final Map<Class<?>, Constructor<Serializer<?>>> serializersCtorCache = new ConcurrentHashMap<>();
-    private static final Map<Integer, Constructor<Serializer<?>>> serializersCtorCacheByOid = new ConcurrentHashMap<>();
-
-    static {
-        try {
-            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-            Enumeration<URL> resources = classLoader.getResources("cerial/serializers.properties");
-            resources.asIterator().forEachRemaining(url -> {
-                Properties props = new Properties();
-                try {
-                    props.load(new FileInputStream(new File(url.toURI())));
-                } catch (IOException | URISyntaxException e) {
-                    throw new RuntimeException(e);
-                }
-                props.forEach((className, serializerClassName) -> {
-                    Integer oid = ClassIdentifierGenerator.INSTANCE.generateIdentifier(className.toString());
-                    try {
-                        Class<?> entityClass = Class.forName(className.toString());
-                        @SuppressWarnings("unchecked")
-                        Class<Serializer<?>> serializerClass = (Class<Serializer<?>>) Class.forName(serializerClassName.toString());
-                        Constructor<Serializer<?>> constructor = serializerClass.getDeclaredConstructor();
-                        serializersCtorCache.put(entityClass, constructor);
-                        serializersCtorCacheByOid.put(oid, constructor);
-                    } catch (NoSuchMethodException | ClassNotFoundException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
-            });
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private static final ClassValue<SerializerCache> serializerCaches = new ClassValue<>() {
+        @Override
+        protected SerializerCache computeValue(Class<?> forClass) {
+            String originalClassName = forClass.getName();
+            // Build the qualified name for the serializer class
+            String serializerClassName = "ccerial." + originalClassName + "_CcerialSerializer";
+            try {
+                return new SerializerCache(Class.forName(serializerClassName, true, forClass.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Serializer class not found for " + originalClassName, e);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Failed to instantiate serializer for " + originalClassName, e);
+            }
         }
-    }
+    };
 
     /**
      * Retrieves the serializer for the specified class.
      * Classes must be annotated with {@link org.gittorr.ccerial.CcSerializable} to have serializers generated.
+     * Serializers are immutable, the same instance is returned on every call and can be shared between threads.
      *
      * @param forClass the class to retrieve the serializer for
      * @param <E>      the type of the class being serialized
      * @return the {@link Serializer} instance for the specified class
      * @throws IllegalArgumentException if no serializer is found for the class
      */
-    @SuppressWarnings("unchecked")
     public static <E> Serializer<E> getSerializer(Class<E> forClass) {
+        return getSerializer(forClass, 0);
+    }
 
-        Constructor<Serializer<?>> constructor = serializersCtorCache.get(forClass);
+    /**
+     * Retrieves the serializer for the specified class, configured with the given features.
+     *
+     * @param forClass the class to retrieve the serializer for
+     * @param features the features to enable
+     * @param <E>      the type of the class being serialized
+     * @return the shared {@link Serializer} instance
+     * @throws IllegalArgumentException if no serializer is found for the class or the features conflict
+     */
+    public static <E> Serializer<E> getSerializer(Class<E> forClass, SerializerFeature... features) {
+        return getSerializer(forClass, SerializerFeature.maskOf(features));
+    }
 
-        try {
-            if (constructor == null) {
-                // Build the qualified name for the serializer class
-                String originalClassName = forClass.getName();
-                String serializerClassName = "ccerial." + originalClassName + "_CcerialSerializer";
-                // Load the serializer class
-                Class<Serializer<?>> serializerClass = (Class<Serializer<?>>) Class.forName(serializerClassName);
-                constructor = serializerClass.getDeclaredConstructor();
-                serializersCtorCache.put(forClass, constructor);
-            }
+    /**
+     * Retrieves the serializer for the specified class, configured with the given features.
+     * The instance is created once per class and combination of features.
+     *
+     * @param forClass the class to retrieve the serializer for
+     * @param features the bitmask of the enabled features, see {@link SerializerFeature#mask()}
+     * @param <E>      the type of the class being serialized
+     * @return the shared {@link Serializer} instance
+     * @throws IllegalArgumentException if no serializer is found for the class or the features conflict
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> Serializer<E> getSerializer(Class<E> forClass, int features) {
+        return (Serializer<E>) serializerCaches.get(forClass).get(features);
+    }
 
-            return (Serializer<E>) constructor.newInstance();
+    public static <E> Serializer<E> getSerializer(int objectId) {
+        return getSerializer(objectId, 0);
+    }
 
-        } catch (ClassNotFoundException e) {
-            String originalClassName = forClass.getName();
-            throw new IllegalArgumentException("Serializer class not found for " + originalClassName, e);
-        } catch (Exception e) {
-            String originalClassName = forClass.getName();
-            throw new RuntimeException("Failed to instantiate serializer for " + originalClassName, e);
-        }
+    @SuppressWarnings("unchecked")
+    public static <E> Serializer<E> getSerializer(int objectId, int features) {
+        return (Serializer<E>) Registries.TABLE.get(objectId).get(features);
     }
 
-    public static <E> Serializer<E> getSerializer(int objectId) {
-        Constructor<Serializer<?>> constructor = serializersCtorCacheByOid.get(objectId);
-        if (constructor == null)
-            throw new IllegalArgumentException("Serializer class not found for object ID " + objectId);
-        try {
-            @SuppressWarnings("unchecked")
-            Serializer<E> serializer = (Serializer<E>) constructor.newInstance();
-            return serializer;
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            throw new IllegalArgumentException("Failed to instantiate serializer for object ID " + objectId, e);
+    static SerializerCache serializerCache(Class<?> forClass) {
+        return serializerCaches.get(forClass);
+    }
+
+    // Loaded on the first lookup by object ID, so serializing by class never scans the registries
+    private static final class Registries {
+
+        static final ObjectIdTable TABLE = load();
+
+        private static ObjectIdTable load() {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader == null)
+                classLoader = Ccerial.class.getClassLoader();
+            List<SerializerRegistry> registries = new ArrayList<>();
+            ServiceLoader.load(SerializerRegistry.class, classLoader).forEach(registries::add);
+            return new ObjectIdTable(registries);
         }
     }
 }
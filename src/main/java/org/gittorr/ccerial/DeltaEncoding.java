@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial;
+
+/**
+ * The {@code DeltaEncoding} enum selects, through {@link CcArray#delta()}, whether the components of an
+ * {@code int[]}, {@code long[]} or a collection of {@code Integer} or {@code Long} are written as the
+ * difference with the previous component. The differences are written as ZigZag varints, so sorted ids
+ * and timestamps taken at a regular interval shrink to one or two bytes per component.
+ *
+ * <h2>Examples:</h2>
+ * <pre>{@code
+ * @CcSerializable
+ * public class Series {
+ *     @CcArray(delta = DeltaEncoding.DELTA_OF_DELTA)
+ *     private long[] timestamps;
+ * }
+ * }</pre>
+ */
+public enum DeltaEncoding {
+
+    /**
+     * Components are written as they are.
+     */
+    NONE,
+
+    /**
+     * Each component is written as the difference with the previous one, the first one as it is.
+     */
+    DELTA,
+
+    /**
+     * Each difference is written as the difference with the previous difference, the first component and the first
+     * difference as they are. Series sampled at a fixed interval end up as a sequence of zeros.
+     */
+    DELTA_OF_DELTA;
+
+}
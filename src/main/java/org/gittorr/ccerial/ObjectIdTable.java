@@ -0,0 +1,89 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial;
+
+import java.util.List;
+
+/*
+ * Open addressing table from class identifiers to serializer caches, built once from the registries. A lookup
+ * is a multiplicative hash and a few probes over a primitive array, with no boxing. The caches are resolved on
+ * first use, so only the classes actually read are loaded.
+ */
+final class ObjectIdTable {
+
+    private final int[] keys;
+    private final String[] classNames;
+    private final SerializerRegistry[] registries;
+    private final SerializerCache[] caches;
+    private final int shift;
+
+    ObjectIdTable(List<SerializerRegistry> registryList) {
+        int count = 0;
+        for (SerializerRegistry registry : registryList)
+            count += registry.objectIds().length;
+        int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        keys = new int[capacity];
+        classNames = new String[capacity];
+        registries = new SerializerRegistry[capacity];
+        caches = new SerializerCache[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        for (SerializerRegistry registry : registryList) {
+            int[] oids = registry.objectIds();
+            String[] names = registry.classNames();
+            for (int i = 0; i < oids.length; i++)
+                put(oids[i], names[i], registry);
+        }
+    }
+
+    private int slot(int oid) {
+        return (oid * 0x9E3779B9) >>> shift;
+    }
+
+    private void put(int oid, String className, SerializerRegistry registry) {
+        int mask = keys.length - 1;
+        for (int i = slot(oid); ; i = (i + 1) & mask) {
+            if (registries[i] == null) {
+                keys[i] = oid;
+                classNames[i] = className;
+                registries[i] = registry;
+                return;
+            }
+            if (keys[i] == oid) {
+                // the same class registered twice, e.g. duplicated on the class path, is harmless
+                if (classNames[i].equals(className))
+                    return;
+                throw new IllegalStateException("Classes " + classNames[i] + " and " + className
+                        + " have the same class identifier " + oid);
+            }
+        }
+    }
+
+    SerializerCache get(int oid) {
+        int mask = keys.length - 1;
+        for (int i = slot(oid); registries[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == oid) {
+                SerializerCache cache = caches[i];
+                if (cache == null)
+                    caches[i] = cache = Ccerial.serializerCache(registries[i].classFor(oid));
+                return cache;
+            }
+        }
+        throw new IllegalArgumentException("Serializer class not found for object ID " + oid);
+    }
+
+}
@@ -17,9 +17,14 @@
  */
 package org.gittorr.ccerial;
 
+import org.gittorr.ccerial.io.ByteArrayCcOutput;
+import org.gittorr.ccerial.io.CcInput;
+import org.gittorr.ccerial.io.CcOutput;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * The {@code Serializer} interface defines the contract for serializing and deserializing
@@ -28,36 +33,172 @@ import java.io.OutputStream;
  * Implementations of this interface are responsible for converting Java objects into a
  * compact binary format and reconstructing objects from that format.
  * </p>
+ * <p>
+ * Serializers are immutable: their features are fixed when they are created, so a single instance can be
+ * shared by any number of threads.
+ * </p>
  *
  * @param <E> the type of object that this serializer handles
  */
 public interface Serializer<E> {
 
+    /**
+     * Serializes the specified entity into a binary format and writes it to the provided {@link CcOutput}.
+     *
+     * @param out the {@link CcOutput} where the serialized data will be written
+     * @param entity the entity to serialize
+     * @throws IOException if an I/O error occurs during serialization
+     */
+    void serialize(CcOutput out, E entity) throws IOException;
+
+    /**
+     * Deserializes data from the provided {@link CcInput} and reconstructs an instance of the object.
+     *
+     * @param in the {@link CcInput} containing the binary data to deserialize
+     * @return the reconstructed object of type {@code E}
+     * @throws IOException if an I/O error occurs during deserialization
+     */
+    E deserialize(CcInput in) throws IOException;
+
     /**
      * Serializes the specified entity into a binary format and writes it to the provided {@link OutputStream}.
+     * The bytes are buffered and handed to the stream in chunks of {@link CcOutput#SMALL_BUFFER_SIZE}, the stream
+     * itself is not flushed.
+     * <p>
+     * Each call allocates its buffer and starts a new session. To write many objects, keep a
+     * {@code CcOutput.of(out)} and serialize them all to it with {@link #serialize(CcOutput, Object)}.
+     * </p>
      *
      * @param out the {@link OutputStream} where the serialized data will be written
      * @param entity the entity to serialize
      * @throws IOException if an I/O error occurs during serialization
      */
-    void serialize(OutputStream out, E entity) throws IOException;
+    default void serialize(OutputStream out, E entity) throws IOException {
+        if (out instanceof CcOutput) {
+            serialize((CcOutput) out, entity);
+            return;
+        }
+        CcOutput ccOut = CcOutput.of(out, CcOutput.SMALL_BUFFER_SIZE);
+        serialize(ccOut, entity);
+        ccOut.flushBuffer();
+    }
 
     /**
      * Deserializes data from the provided {@link InputStream} and reconstructs an instance of the object.
+     * The stream is left positioned right after the object whenever it supports {@link InputStream#mark(int)},
+     * reading ahead at most what {@link InputStream#available()} tells, between {@link CcOutput#SMALL_BUFFER_SIZE}
+     * and {@link CcOutput#DEFAULT_BUFFER_SIZE} bytes. Otherwise it is read without any read-ahead, value by value.
+     * <p>
+     * Each call allocates its buffer and starts a new session. To read many objects, keep a
+     * {@code CcInput.of(in)} and deserialize them all from it with {@link #deserialize(CcInput)}, over a
+     * {@link java.io.BufferedInputStream} when the stream doesn't support marks.
+     * </p>
      *
      * @param in the {@link InputStream} containing the binary data to deserialize
      * @return the reconstructed object of type {@code E}
      * @throws IOException if an I/O error occurs during deserialization
      */
-    E deserialize(InputStream in) throws IOException;
+    default E deserialize(InputStream in) throws IOException {
+        if (in instanceof CcInput)
+            return deserialize((CcInput) in);
+        int bufferSize = in.markSupported()
+                ? Math.max(CcOutput.SMALL_BUFFER_SIZE, Math.min(in.available(), CcOutput.DEFAULT_BUFFER_SIZE))
+                : CcOutput.SMALL_BUFFER_SIZE;
+        CcInput ccIn = CcInput.of(in, bufferSize);
+        E entity = deserialize(ccIn);
+        ccIn.release();
+        return entity;
+    }
+
+    /**
+     * Serializes the specified entity straight into the {@link ByteBuffer}, heap or direct, starting at its
+     * position. Values are written in little-endian order regardless of the buffer order, and the buffer
+     * position is moved past the written bytes.
+     *
+     * @param buffer the {@link ByteBuffer} where the serialized data will be written
+     * @param entity the entity to serialize
+     * @throws IOException if an I/O error occurs during serialization
+     * @throws java.nio.BufferOverflowException if the data doesn't fit in the remaining space
+     */
+    default void serialize(ByteBuffer buffer, E entity) throws IOException {
+        CcOutput ccOut = CcOutput.of(buffer);
+        serialize(ccOut, entity);
+        ccOut.flushBuffer();
+    }
+
+    /**
+     * Deserializes an object from the {@link ByteBuffer}, heap or direct, starting at its position.
+     * The buffer position is moved past the consumed bytes.
+     *
+     * @param buffer the {@link ByteBuffer} containing the binary data to deserialize
+     * @return the reconstructed object of type {@code E}
+     * @throws IOException if an I/O error occurs during deserialization
+     */
+    default E deserialize(ByteBuffer buffer) throws IOException {
+        CcInput ccIn = CcInput.of(buffer);
+        E entity = deserialize(ccIn);
+        ccIn.release();
+        return entity;
+    }
+
+    /**
+     * Serializes the specified entity into a new array of the exact serialized size.
+     *
+     * @param entity the entity to serialize
+     * @return the serialized data
+     * @throws IOException if an I/O error occurs during serialization
+     */
+    default byte[] toBytes(E entity) throws IOException {
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        serialize(out, entity);
+        return out.toByteArray();
+    }
+
+    /**
+     * Serializes the specified entity in place into the array, starting at {@code offset}.
+     *
+     * @param entity the entity to serialize
+     * @param dst the destination array
+     * @param offset the first index to write
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs during serialization
+     * @throws java.nio.BufferOverflowException if the data doesn't fit in the array
+     */
+    default int serialize(E entity, byte[] dst, int offset) throws IOException {
+        CcOutput out = CcOutput.of(dst, offset);
+        serialize(out, entity);
+        return (int) out.position();
+    }
+
+    /**
+     * Deserializes an object from a range of the array. To walk several records concatenated in the same
+     * array, read them from a single {@link CcInput#of(byte[], int, int)}, whose {@link CcInput#position()}
+     * tells how many bytes were consumed so far.
+     *
+     * @param src the array containing the binary data to deserialize
+     * @param offset the first byte
+     * @param length the number of bytes available
+     * @return the reconstructed object of type {@code E}
+     * @throws IOException if an I/O error occurs during deserialization
+     */
+    default E deserialize(byte[] src, int offset, int length) throws IOException {
+        return deserialize(CcInput.of(src, offset, length));
+    }
 
     /**
-     * Enables or disables a specific serialization feature.
+     * Returns the serializer of the same class configured with exactly the given features. Serializers are
+     * immutable and shared, so the instance is created once per combination of features and cached.
      *
-     * @param feature the feature to be enabled or disabled
-     * @param enabled {@code true} to enable the feature, {@code false} to disable it
+     * @param features the features to enable
+     * @return the serializer with the given features
+     * @throws IllegalArgumentException if the features conflict with each other
+     */
+    Serializer<E> withFeatures(SerializerFeature... features);
+
+    /**
+     * @return the bitmask of the enabled features, see {@link SerializerFeature#mask()}
      */
-    void setFeatureEnabled(SerializerFeature feature, boolean enabled);
+    int getFeatures();
 
     /**
      * Checks if a specific serialization feature is enabled.
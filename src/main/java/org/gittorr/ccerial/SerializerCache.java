@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/*
+ * Holds the constructor of the generated serializer of a class, as a method handle, along with the
+ * serializers already configured for each combination of features. The combinations are kept in a small
+ * copy-on-write array, since a class is seldom used with more than a couple of them.
+ */
+final class SerializerCache {
+
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Serializer.class, int.class);
+
+    private final MethodHandle factory;
+    private volatile int[] masks = new int[0];
+    private volatile Serializer<?>[] serializers = new Serializer<?>[0];
+
+    SerializerCache(Class<?> serializerClass) throws NoSuchMethodException, IllegalAccessException {
+        this.factory = MethodHandles.publicLookup()
+                .findConstructor(serializerClass, MethodType.methodType(void.class, int.class))
+                .asType(FACTORY_TYPE);
+    }
+
+    Serializer<?> get(int features) {
+        int[] ms = masks;
+        for (int i = 0; i < ms.length; i++) {
+            if (ms[i] == features)
+                return serializers[i];
+        }
+        return create(features);
+    }
+
+    private synchronized Serializer<?> create(int features) {
+        int[] ms = masks;
+        for (int i = 0; i < ms.length; i++) {
+            if (ms[i] == features)
+                return serializers[i];
+        }
+        Serializer<?> serializer = newInstance(features);
+        Serializer<?>[] ss = Arrays.copyOf(serializers, ms.length + 1);
+        ss[ms.length] = serializer;
+        ms = Arrays.copyOf(ms, ms.length + 1);
+        ms[ms.length - 1] = features;
+        // serializers is published before masks, so a reader seeing a mask always finds its serializer
+        serializers = ss;
+        masks = ms;
+        return serializer;
+    }
+
+    private Serializer<?> newInstance(int features) {
+        try {
+            return (Serializer<?>) factory.invokeExact(features);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
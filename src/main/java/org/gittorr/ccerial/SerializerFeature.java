@@ -24,5 +24,57 @@ public enum SerializerFeature {
     /**
      * Treats zero or empty values as null during serialization or deserialization.
      */
-    FORCE_ZERO_OR_EMPTY_AS_NULL;
+    FORCE_ZERO_OR_EMPTY_AS_NULL,
+
+    /**
+     * Encodes every variable size int and long value, and the components of variable size int and long arrays,
+     * with ZigZag varints, so small negative numbers take as few bytes as small positive ones.
+     */
+    ZIGZAG_VARINTS,
+
+    /**
+     * Writes every {@code byte[]}, {@code char[]}, {@code int[]}, {@code long[]}, {@code float[]} and
+     * {@code double[]} without an encoding of its own with {@link ArrayEncoding#RUN_LENGTH}.
+     */
+    RUN_LENGTH_ARRAYS,
+
+    /**
+     * Writes every variable size string once per {@link org.gittorr.ccerial.io.CcOutput}, its next occurrences
+     * are written as the varint id given to it by the output. Reading the same {@link org.gittorr.ccerial.io.CcInput}
+     * returns the same {@code String} instance for all of them.
+     */
+    STRING_DICTIONARY,
+
+    /**
+     * Replaces the 8 bytes header of each object with a varint tag given to its class by the
+     * {@link org.gittorr.ccerial.io.CcOutput}. The class identifier is written with the first object of the
+     * class only, the next ones take a single byte for the first 126 classes.
+     */
+    CLASS_DICTIONARY,
+
+    /**
+     * Writes an object referenced again, by identity, from any object written to the same
+     * {@link org.gittorr.ccerial.io.CcOutput} as a varint id, so shared objects are written once and read back as
+     * a single instance, and cyclic graphs are written. Cycles can only be read when they go through objects
+     * created before their fields are read, not by their constructor.
+     */
+    TRACK_REFERENCES;
+
+    /**
+     * @return the bit representing this feature in a features bitmask
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @param features the features
+     * @return the bitmask with the bits of the given features set
+     */
+    public static int maskOf(SerializerFeature... features) {
+        int mask = 0;
+        for (SerializerFeature feature : features)
+            mask |= feature.mask();
+        return mask;
+    }
 }
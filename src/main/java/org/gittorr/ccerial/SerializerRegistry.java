@@ -0,0 +1,48 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial;
+
+/**
+ * The {@code SerializerRegistry} interface is implemented by the registries generated by the Ccerial processor,
+ * one for each round of annotation processing, and discovered by {@link Ccerial} through
+ * {@link java.util.ServiceLoader}.
+ * <p>
+ * A registry maps the class identifiers written in the headers to the serialized classes. Looking up the
+ * registries doesn't load any of the serialized classes, each one is only loaded when its identifier is
+ * first read.
+ * </p>
+ */
+public interface SerializerRegistry {
+
+    /**
+     * @return the identifiers of the classes known to this registry
+     */
+    int[] objectIds();
+
+    /**
+     * @return the qualified names of the classes, in the same order as {@link #objectIds()}
+     */
+    String[] classNames();
+
+    /**
+     * @param objectId the class identifier
+     * @return the class with the given identifier, or {@code null} if it isn't known to this registry
+     */
+    Class<?> classFor(int objectId);
+
+}
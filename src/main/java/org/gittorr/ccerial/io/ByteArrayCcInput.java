@@ -0,0 +1,471 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.gittorr.ccerial.io.ByteArrayCcOutput.INT;
+import static org.gittorr.ccerial.io.ByteArrayCcOutput.LONG;
+import static org.gittorr.ccerial.io.ByteArrayCcOutput.SHORT;
+
+/**
+ * A {@link CcInput} backed by a byte array.
+ * <p>
+ * It either decodes an array given upfront or works as a buffer refilled from a source {@link InputStream}.
+ * </p>
+ */
+public final class ByteArrayCcInput extends CcInput {
+
+    private final InputStream source;
+    private final boolean readAhead;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private long consumed;
+    // first index of the bytes read after the last mark of the source
+    private int markBase = -1;
+
+    /**
+     * Creates an input decoding the whole array.
+     *
+     * @param bytes the array
+     */
+    public ByteArrayCcInput(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates an input decoding a range of the array.
+     *
+     * @param bytes  the array
+     * @param offset the first byte
+     * @param length the number of bytes
+     */
+    public ByteArrayCcInput(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length)
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") out of bounds for length " + bytes.length);
+        this.source = null;
+        this.readAhead = false;
+        this.buffer = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        this.consumed = -offset;
+    }
+
+    /**
+     * Creates an input buffering the reads from {@code source}.
+     *
+     * @param source     the stream
+     * @param bufferSize the size of the buffer
+     */
+    public ByteArrayCcInput(InputStream source, int bufferSize) {
+        if (source == null)
+            throw new IllegalArgumentException("The source stream cannot be null");
+        this.source = source;
+        this.readAhead = source.markSupported();
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+    }
+
+    private void require(int n) throws IOException {
+        if (limit - position < n)
+            fill(n);
+    }
+
+    private void fill(int n) throws IOException {
+        if (source == null)
+            throw newEndOfStreamException();
+        int remaining = limit - position;
+        if (remaining > 0)
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        consumed += position;
+        position = 0;
+        limit = remaining;
+        int wanted = readAhead ? buffer.length - remaining : n - remaining;
+        if (readAhead) {
+            source.mark(wanted);
+            markBase = remaining;
+        }
+        while (limit < n) {
+            int read = source.read(buffer, limit, wanted - (limit - remaining));
+            if (read < 0)
+                throw newEndOfStreamException();
+            limit += read;
+        }
+    }
+
+    // number of elements of the given size that can be read right away, at least one
+    private int available(int elements, int size) throws IOException {
+        int fit = (limit - position) / size;
+        if (fit >= elements)
+            return elements;
+        if (fit == 0) {
+            fill((int) Math.min((long) elements * size, buffer.length / size * size));
+            fit = (limit - position) / size;
+        }
+        return Math.min(fit, elements);
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        if (position == limit)
+            fill(1);
+        return buffer[position++];
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int off, int len) throws IOException {
+        int available = limit - position;
+        if (available >= len) {
+            System.arraycopy(buffer, position, bytes, off, len);
+            position += len;
+            return;
+        }
+        System.arraycopy(buffer, position, bytes, off, available);
+        position += available;
+        if (source == null)
+            throw newEndOfStreamException();
+        off += available;
+        len -= available;
+        if (len < buffer.length) {
+            fill(len);
+            System.arraycopy(buffer, position, bytes, off, len);
+            position += len;
+        } else {
+            if (source.readNBytes(bytes, off, len) != len)
+                throw newEndOfStreamException();
+            consumed += len;
+        }
+    }
+
+    @Override
+    public void skipFully(int count) throws IOException {
+        int available = limit - position;
+        if (available >= count) {
+            position += count;
+            return;
+        }
+        position += available;
+        if (source == null)
+            throw newEndOfStreamException();
+        count -= available;
+        while (count > 0) {
+            int n = Math.min(count, buffer.length);
+            fill(n);
+            position += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(2);
+        short s = (short) SHORT.get(buffer, position);
+        position += 2;
+        return s;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(4);
+        int i = (int) INT.get(buffer, position);
+        position += 4;
+        return i;
+    }
+
+    @Override
+    public int peekInt() throws IOException {
+        require(4);
+        return (int) INT.get(buffer, position);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(8);
+        long l = (long) LONG.get(buffer, position);
+        position += 8;
+        return l;
+    }
+
+    @Override
+    public int readVarInt() throws IOException {
+        int p = position;
+        if (limit - p < 5)
+            return readVarIntSlow();
+        byte[] buf = buffer;
+        int b = buf[p];
+        if (b >= 0) {
+            position = p + 1;
+            return b;
+        }
+        int value = b & 0x7F;
+        if ((b = buf[p + 1]) >= 0) {
+            position = p + 2;
+            return value | b << 7;
+        }
+        value |= (b & 0x7F) << 7;
+        if ((b = buf[p + 2]) >= 0) {
+            position = p + 3;
+            return value | b << 14;
+        }
+        value |= (b & 0x7F) << 14;
+        if ((b = buf[p + 3]) >= 0) {
+            position = p + 4;
+            return value | b << 21;
+        }
+        value |= (b & 0x7F) << 21;
+        if ((b = buf[p + 4]) >= 0) {
+            position = p + 5;
+            return value | b << 28;
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    // near the end of the buffer, where a refill may be needed in the middle of the varint
+    private int readVarIntSlow() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    @Override
+    public long readVarLong() throws IOException {
+        int p = position;
+        if (limit - p < 10)
+            return readVarLongSlow();
+        byte[] buf = buffer;
+        long b = buf[p];
+        if (b >= 0) {
+            position = p + 1;
+            return b;
+        }
+        long value = b & 0x7F;
+        if ((b = buf[p + 1]) >= 0) {
+            position = p + 2;
+            return value | b << 7;
+        }
+        value |= (b & 0x7F) << 7;
+        for (int i = 2, shift = 14; i < 10; i++, shift += 7) {
+            b = buf[p + i];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                position = p + i + 1;
+                return value;
+            }
+        }
+        throw new IOException("VarLong is too big");
+    }
+
+    private long readVarLongSlow() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("VarLong is too big");
+    }
+
+    @Override
+    public void readVarInts(int[] values, int off, int len) throws IOException {
+        int i = off;
+        int end = off + len;
+        while (i < end) {
+            int p = position;
+            if (limit - p < Long.BYTES) {
+                values[i++] = readVarInt();
+                continue;
+            }
+            byte[] buf = buffer;
+            long word = (long) LONG.get(buf, p);
+            int run = Math.min(singleByteRun(word), end - i);
+            if (run > 0) {
+                for (int k = 0; k < run; k++)
+                    values[i + k] = buf[p + k];
+                i += run;
+                position = p + run;
+                continue;
+            }
+            int length = varIntLength(word);
+            if (length == 0 || length > 5)
+                throw new IOException("VarInt is too big");
+            values[i++] = (int) varIntBits(word, length);
+            position = p + length;
+        }
+    }
+
+    @Override
+    public void readVarLongs(long[] values, int off, int len) throws IOException {
+        int i = off;
+        int end = off + len;
+        while (i < end) {
+            int p = position;
+            if (limit - p < Long.BYTES) {
+                values[i++] = readVarLong();
+                continue;
+            }
+            byte[] buf = buffer;
+            long word = (long) LONG.get(buf, p);
+            int run = Math.min(singleByteRun(word), end - i);
+            if (run > 0) {
+                for (int k = 0; k < run; k++)
+                    values[i + k] = buf[p + k];
+                i += run;
+                position = p + run;
+                continue;
+            }
+            int length = varIntLength(word);
+            if (length == 0) {
+                // 9 or 10 bytes
+                values[i++] = readVarLong();
+                continue;
+            }
+            values[i++] = varIntBits(word, length);
+            position = p + length;
+        }
+    }
+
+    @Override
+    public void readShorts(short[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = available(len, Short.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(values, off, n);
+            position += n * Short.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void readChars(char[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = available(len, Character.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Character.BYTES).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer().get(values, off, n);
+            position += n * Character.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void readInts(int[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = available(len, Integer.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, off, n);
+            position += n * Integer.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void readLongs(long[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = available(len, Long.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(values, off, n);
+            position += n * Long.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void readFloats(float[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = available(len, Float.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values, off, n);
+            position += n * Float.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void readDoubles(double[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = available(len, Double.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values, off, n);
+            position += n * Double.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public long position() {
+        return consumed + position;
+    }
+
+    @Override
+    public void release() throws IOException {
+        if (source == null || position == limit)
+            return;
+        if (!readAhead || position < markBase)
+            throw new IOException("Can't return the bytes read ahead to the source stream");
+        source.reset();
+        source.skipNBytes(position - markBase);
+        consumed += position;
+        position = limit = markBase = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit) {
+            if (source == null)
+                return -1;
+            int b = source.read();
+            if (b >= 0)
+                consumed++;
+            return b;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        int available = limit - position;
+        if (available == 0) {
+            if (source == null)
+                return -1;
+            int read = source.read(b, off, len);
+            if (read > 0)
+                consumed += read;
+            return read;
+        }
+        int n = Math.min(available, len);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return limit - position + (source != null ? source.available() : 0);
+    }
+
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A {@link CcOutput} backed by a byte array.
+ * <p>
+ * When created with a target {@link OutputStream} the array works as a fixed size buffer that is handed
+ * to the stream in chunks whenever it fills up. Without a target the array grows as needed and the
+ * result can be retrieved with {@link #toByteArray()}. When created over a caller's array it writes in
+ * place and throws {@link BufferOverflowException} if the array is too small.
+ * </p>
+ */
+public final class ByteArrayCcOutput extends CcOutput {
+
+    static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final OutputStream target;
+    private final boolean growable;
+    private final int start;
+    private byte[] buffer;
+    private int position;
+    private long flushed;
+
+    /**
+     * Creates a growable output.
+     */
+    public ByteArrayCcOutput() {
+        this(256);
+    }
+
+    /**
+     * Creates a growable output.
+     *
+     * @param initialCapacity the initial size of the array
+     */
+    public ByteArrayCcOutput(int initialCapacity) {
+        this.target = null;
+        this.growable = true;
+        this.start = 0;
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    /**
+     * Creates an output writing in place into {@code dst}, starting at {@code offset}.
+     *
+     * @param dst    the destination array
+     * @param offset the first index to write
+     */
+    public ByteArrayCcOutput(byte[] dst, int offset) {
+        if (offset < 0 || offset > dst.length)
+            throw new IndexOutOfBoundsException("Offset " + offset + " out of bounds for length " + dst.length);
+        this.target = null;
+        this.growable = false;
+        this.start = offset;
+        this.buffer = dst;
+        this.position = offset;
+    }
+
+    /**
+     * Creates an output buffering the writes to {@code target}.
+     *
+     * @param target     the stream receiving the bytes
+     * @param bufferSize the size of the buffer
+     */
+    public ByteArrayCcOutput(OutputStream target, int bufferSize) {
+        if (target == null)
+            throw new IllegalArgumentException("The target stream cannot be null");
+        this.target = target;
+        this.growable = false;
+        this.start = 0;
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+    }
+
+    private void require(int n) throws IOException {
+        if (buffer.length - position < n)
+            makeRoom(n);
+    }
+
+    private boolean inPlace() {
+        return target == null && !growable;
+    }
+
+    // number of elements of the given size that can be written right away, at least one
+    private int room(int elements, int size) throws IOException {
+        int fit = (buffer.length - position) / size;
+        if (fit >= elements)
+            return elements;
+        if (target == null) {
+            makeRoom(elements * size);
+            return elements;
+        }
+        if (fit == 0) {
+            flushBuffer();
+            fit = buffer.length / size;
+        }
+        return Math.min(fit, elements);
+    }
+
+    private void makeRoom(int n) throws IOException {
+        if (target != null) {
+            flushBuffer();
+            if (buffer.length >= n)
+                return;
+        } else if (!growable) {
+            throw new BufferOverflowException();
+        }
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + n));
+    }
+
+    @Override
+    public void writeByte(int b) throws IOException {
+        if (position == buffer.length)
+            makeRoom(1);
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int off, int len) throws IOException {
+        if (buffer.length - position < len) {
+            if (target != null && len >= buffer.length) {
+                flushBuffer();
+                target.write(bytes, off, len);
+                flushed += len;
+                return;
+            }
+            makeRoom(len);
+        }
+        System.arraycopy(bytes, off, buffer, position, len);
+        position += len;
+    }
+
+    @Override
+    public void writeZeros(int count) throws IOException {
+        while (count > 0) {
+            if (position == buffer.length)
+                makeRoom(Math.min(count, buffer.length));
+            int n = Math.min(count, buffer.length - position);
+            Arrays.fill(buffer, position, position + n, (byte) 0);
+            position += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public void writeShort(int s) throws IOException {
+        require(2);
+        SHORT.set(buffer, position, (short) s);
+        position += 2;
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+        require(4);
+        INT.set(buffer, position, i);
+        position += 4;
+    }
+
+    @Override
+    public void writeLong(long l) throws IOException {
+        require(8);
+        LONG.set(buffer, position, l);
+        position += 8;
+    }
+
+    @Override
+    public void writeVarInt(int value) throws IOException {
+        if (buffer.length - position < 5) {
+            if (inPlace()) {
+                writeVarLong(value & 0xFFFFFFFFL);
+                return;
+            }
+            makeRoom(5);
+        }
+        byte[] buf = buffer;
+        int p = position;
+        while ((value & ~0x7F) != 0) {
+            buf[p++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[p++] = (byte) value;
+        position = p;
+    }
+
+    @Override
+    public void writeVarLong(long value) throws IOException {
+        if (buffer.length - position < 10) {
+            if (inPlace()) {
+                while ((value & ~0x7FL) != 0) {
+                    writeByte((int) ((value & 0x7F) | 0x80));
+                    value >>>= 7;
+                }
+                writeByte((int) value);
+                return;
+            }
+            makeRoom(10);
+        }
+        byte[] buf = buffer;
+        int p = position;
+        while ((value & ~0x7FL) != 0) {
+            buf[p++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[p++] = (byte) value;
+        position = p;
+    }
+
+    @Override
+    public void writeShorts(short[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = room(len, Short.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Short.BYTES).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(values, off, n);
+            position += n * Short.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void writeChars(char[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = room(len, Character.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Character.BYTES).order(ByteOrder.LITTLE_ENDIAN).asCharBuffer().put(values, off, n);
+            position += n * Character.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void writeInts(int[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = room(len, Integer.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(values, off, n);
+            position += n * Integer.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void writeLongs(long[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = room(len, Long.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(values, off, n);
+            position += n * Long.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void writeFloats(float[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = room(len, Float.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(values, off, n);
+            position += n * Float.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void writeDoubles(double[] values, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = room(len, Double.BYTES);
+            ByteBuffer.wrap(buffer, position, n * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(values, off, n);
+            position += n * Double.BYTES;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public long position() {
+        return flushed + position - start;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (target != null && position > 0) {
+            target.write(buffer, 0, position);
+            flushed += position;
+            position = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if (target != null)
+            target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        if (target != null)
+            target.close();
+    }
+
+    /**
+     * Discards the bytes written so far, and the dictionaries built with them, keeping the allocated array.
+     */
+    public void reset() {
+        position = start;
+        flushed = 0;
+        resetSession();
+    }
+
+    /**
+     * @return a copy of the bytes written and still buffered
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(buffer, start, position);
+    }
+
+    /**
+     * Writes the bytes written and still buffered to the given stream, without copying them.
+     *
+     * @param out the stream
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, start, position - start);
+    }
+
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link CcInput} reading straight from a {@link ByteBuffer}, heap or direct.
+ * <p>
+ * Values are read with the buffer's own {@code get} methods in little-endian order, whatever the order
+ * of the given buffer is. The position of the given buffer is updated by {@link #release()}.
+ * </p>
+ */
+public final class ByteBufferCcInput extends CcInput {
+
+    private final ByteBuffer source;
+    private final ByteBuffer buffer;
+    private final int start;
+
+    /**
+     * Creates an input reading from the current position up to the limit of the buffer.
+     *
+     * @param source the buffer
+     */
+    public ByteBufferCcInput(ByteBuffer source) {
+        this.source = source;
+        this.buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.start = source.position();
+    }
+
+    private void require(int n) throws IOException {
+        if (buffer.remaining() < n)
+            throw newEndOfStreamException();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int off, int len) throws IOException {
+        require(len);
+        buffer.get(bytes, off, len);
+    }
+
+    @Override
+    public void skipFully(int count) throws IOException {
+        require(count);
+        buffer.position(buffer.position() + count);
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(2);
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    @Override
+    public int peekInt() throws IOException {
+        require(4);
+        return buffer.getInt(buffer.position());
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    @Override
+    public int readVarInt() throws IOException {
+        ByteBuffer buf = buffer;
+        int p = buf.position();
+        if (buf.limit() - p < 5)
+            return readVarIntSlow();
+        int b = buf.get(p);
+        if (b >= 0) {
+            buf.position(p + 1);
+            return b;
+        }
+        int value = b & 0x7F;
+        if ((b = buf.get(p + 1)) >= 0) {
+            buf.position(p + 2);
+            return value | b << 7;
+        }
+        value |= (b & 0x7F) << 7;
+        for (int i = 2, shift = 14; i < 5; i++, shift += 7) {
+            b = buf.get(p + i);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                buf.position(p + i + 1);
+                return value;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    private int readVarIntSlow() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    @Override
+    public long readVarLong() throws IOException {
+        ByteBuffer buf = buffer;
+        int p = buf.position();
+        if (buf.limit() - p < 10)
+            return readVarLongSlow();
+        long b = buf.get(p);
+        if (b >= 0) {
+            buf.position(p + 1);
+            return b;
+        }
+        long value = b & 0x7F;
+        if ((b = buf.get(p + 1)) >= 0) {
+            buf.position(p + 2);
+            return value | b << 7;
+        }
+        value |= (b & 0x7F) << 7;
+        for (int i = 2, shift = 14; i < 10; i++, shift += 7) {
+            b = buf.get(p + i);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                buf.position(p + i + 1);
+                return value;
+            }
+        }
+        throw new IOException("VarLong is too big");
+    }
+
+    private long readVarLongSlow() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException("VarLong is too big");
+    }
+
+    @Override
+    public void readVarInts(int[] values, int off, int len) throws IOException {
+        ByteBuffer buf = buffer;
+        int i = off;
+        int end = off + len;
+        while (i < end) {
+            int p = buf.position();
+            if (buf.limit() - p < Long.BYTES) {
+                values[i++] = readVarInt();
+                continue;
+            }
+            long word = buf.getLong(p);
+            int run = Math.min(singleByteRun(word), end - i);
+            if (run > 0) {
+                for (int k = 0; k < run; k++, word >>>= 8)
+                    values[i + k] = (int) word & 0x7F;
+                i += run;
+                buf.position(p + run);
+                continue;
+            }
+            int length = varIntLength(word);
+            if (length == 0 || length > 5)
+                throw new IOException("VarInt is too big");
+            values[i++] = (int) varIntBits(word, length);
+            buf.position(p + length);
+        }
+    }
+
+    @Override
+    public void readVarLongs(long[] values, int off, int len) throws IOException {
+        ByteBuffer buf = buffer;
+        int i = off;
+        int end = off + len;
+        while (i < end) {
+            int p = buf.position();
+            if (buf.limit() - p < Long.BYTES) {
+                values[i++] = readVarLong();
+                continue;
+            }
+            long word = buf.getLong(p);
+            int run = Math.min(singleByteRun(word), end - i);
+            if (run > 0) {
+                for (int k = 0; k < run; k++, word >>>= 8)
+                    values[i + k] = word & 0x7F;
+                i += run;
+                buf.position(p + run);
+                continue;
+            }
+            int length = varIntLength(word);
+            if (length == 0) {
+                values[i++] = readVarLong();
+                continue;
+            }
+            values[i++] = varIntBits(word, length);
+            buf.position(p + length);
+        }
+    }
+
+    @Override
+    public void readShorts(short[] values, int off, int len) throws IOException {
+        require(len * Short.BYTES);
+        buffer.asShortBuffer().get(values, off, len);
+        buffer.position(buffer.position() + len * Short.BYTES);
+    }
+
+    @Override
+    public void readChars(char[] values, int off, int len) throws IOException {
+        require(len * Character.BYTES);
+        buffer.asCharBuffer().get(values, off, len);
+        buffer.position(buffer.position() + len * Character.BYTES);
+    }
+
+    @Override
+    public void readInts(int[] values, int off, int len) throws IOException {
+        require(len * Integer.BYTES);
+        buffer.asIntBuffer().get(values, off, len);
+        buffer.position(buffer.position() + len * Integer.BYTES);
+    }
+
+    @Override
+    public void readLongs(long[] values, int off, int len) throws IOException {
+        require(len * Long.BYTES);
+        buffer.asLongBuffer().get(values, off, len);
+        buffer.position(buffer.position() + len * Long.BYTES);
+    }
+
+    @Override
+    public void readFloats(float[] values, int off, int len) throws IOException {
+        require(len * Float.BYTES);
+        buffer.asFloatBuffer().get(values, off, len);
+        buffer.position(buffer.position() + len * Float.BYTES);
+    }
+
+    @Override
+    public void readDoubles(double[] values, int off, int len) throws IOException {
+        require(len * Double.BYTES);
+        buffer.asDoubleBuffer().get(values, off, len);
+        buffer.position(buffer.position() + len * Double.BYTES);
+    }
+
+    @Override
+    public long position() {
+        return buffer.position() - start;
+    }
+
+    @Override
+    public void release() {
+        source.position(buffer.position());
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0)
+            return 0;
+        if (!buffer.hasRemaining())
+            return -1;
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link CcOutput} writing straight into a {@link ByteBuffer}, heap or direct.
+ * <p>
+ * Values are written with the buffer's own {@code put} methods in little-endian order, whatever the order
+ * of the given buffer is. The position of the given buffer is updated by {@link #flushBuffer()}.
+ * Writing past the limit throws {@link java.nio.BufferOverflowException}.
+ * </p>
+ */
+public final class ByteBufferCcOutput extends CcOutput {
+
+    private final ByteBuffer target;
+    private final ByteBuffer buffer;
+    private final int start;
+
+    /**
+     * Creates an output writing from the current position of the buffer.
+     *
+     * @param target the buffer
+     */
+    public ByteBufferCcOutput(ByteBuffer target) {
+        this.target = target;
+        this.buffer = target.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.start = target.position();
+    }
+
+    @Override
+    public void writeByte(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void writeBytes(byte[] bytes, int off, int len) {
+        buffer.put(bytes, off, len);
+    }
+
+    @Override
+    public void writeZeros(int count) {
+        int position = buffer.position();
+        int end = position + count;
+        if (end > buffer.limit())
+            throw new BufferOverflowException();
+        for (; position + 8 <= end; position += 8)
+            buffer.putLong(position, 0L);
+        for (; position < end; position++)
+            buffer.put(position, (byte) 0);
+        buffer.position(end);
+    }
+
+    @Override
+    public void writeShort(int s) {
+        buffer.putShort((short) s);
+    }
+
+    @Override
+    public void writeInt(int i) {
+        buffer.putInt(i);
+    }
+
+    @Override
+    public void writeLong(long l) {
+        buffer.putLong(l);
+    }
+
+    @Override
+    public void writeVarInt(int value) {
+        ByteBuffer buf = buffer;
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    @Override
+    public void writeVarLong(long value) {
+        ByteBuffer buf = buffer;
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    @Override
+    public void writeShorts(short[] values, int off, int len) {
+        buffer.asShortBuffer().put(values, off, len);
+        buffer.position(buffer.position() + len * Short.BYTES);
+    }
+
+    @Override
+    public void writeChars(char[] values, int off, int len) {
+        buffer.asCharBuffer().put(values, off, len);
+        buffer.position(buffer.position() + len * Character.BYTES);
+    }
+
+    @Override
+    public void writeInts(int[] values, int off, int len) {
+        buffer.asIntBuffer().put(values, off, len);
+        buffer.position(buffer.position() + len * Integer.BYTES);
+    }
+
+    @Override
+    public void writeLongs(long[] values, int off, int len) {
+        buffer.asLongBuffer().put(values, off, len);
+        buffer.position(buffer.position() + len * Long.BYTES);
+    }
+
+    @Override
+    public void writeFloats(float[] values, int off, int len) {
+        buffer.asFloatBuffer().put(values, off, len);
+        buffer.position(buffer.position() + len * Float.BYTES);
+    }
+
+    @Override
+    public void writeDoubles(double[] values, int off, int len) {
+        buffer.asDoubleBuffer().put(values, off, len);
+        buffer.position(buffer.position() + len * Double.BYTES);
+    }
+
+    @Override
+    public long position() {
+        return buffer.position() - start;
+    }
+
+    @Override
+    public void flushBuffer() {
+        target.position(buffer.position());
+    }
+
+    @Override
+    public void flush() {
+        flushBuffer();
+    }
+
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The {@code CcInput} class is the source the generated serializers read from.
+ * <p>
+ * It is the counterpart of {@link CcOutput}: every primitive of the wire format is decoded by a single call,
+ * so implementations holding the bytes in their own storage decode them without a call per byte.
+ * </p>
+ * It is still an {@link InputStream}, so it can be handed to any code expecting one.
+ */
+public abstract class CcInput extends InputStream {
+
+    private String[] strings;
+    private int stringCount;
+    private int[] classIds;
+    private int classCount;
+    private int peekedClassId;
+    private boolean classIdPeeked;
+    private Object[] references;
+    private int referenceCount;
+
+    /**
+     * Creates a buffered source reading from the given stream. If the stream is already a {@code CcInput} it is
+     * returned as is.
+     * <p>
+     * When the stream supports {@link InputStream#mark(int)} the source reads ahead in large chunks and
+     * {@link #release()} gives the bytes not consumed back to it. Otherwise it only reads what each value needs.
+     * </p>
+     *
+     * @param in the source stream
+     * @return the source
+     */
+    public static CcInput of(InputStream in) {
+        return of(in, CcOutput.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Same as {@link #of(InputStream)} with a buffer of the given size, which bounds the read-ahead.
+     *
+     * @param in         the source stream
+     * @param bufferSize the size of the buffer
+     * @return the source
+     */
+    public static CcInput of(InputStream in, int bufferSize) {
+        if (in instanceof CcInput)
+            return (CcInput) in;
+        return new ByteArrayCcInput(in, bufferSize);
+    }
+
+    /**
+     * Creates a source reading the blocks written by {@link CcOutput#ofCompressed(OutputStream)}.
+     *
+     * @param in the source stream
+     * @return the source
+     */
+    public static CcInput ofCompressed(InputStream in) {
+        return of(new CompressedInputStream(in));
+    }
+
+    /**
+     * Creates a source reading straight from the buffer, from its position up to its limit.
+     * The position of the buffer is updated on {@link #release()}.
+     *
+     * @param buffer the source buffer, heap or direct
+     * @return the source
+     */
+    public static CcInput of(ByteBuffer buffer) {
+        return new ByteBufferCcInput(buffer);
+    }
+
+    /**
+     * Creates a source decoding a range of the array. Its {@link #position()} tells how many bytes were
+     * consumed, which allows walking records concatenated in the same array.
+     *
+     * @param src    the array
+     * @param offset the first byte
+     * @param length the number of bytes
+     * @return the source
+     */
+    public static CcInput of(byte[] src, int offset, int length) {
+        return new ByteArrayCcInput(src, offset, length);
+    }
+
+    /**
+     * @return the next byte
+     * @throws EOFException if there are no more bytes
+     * @throws IOException  if an I/O error occurs
+     */
+    public abstract byte readByte() throws IOException;
+
+    /**
+     * Reads exactly {@code len} bytes into the array.
+     *
+     * @param bytes the destination array
+     * @param off   the start offset
+     * @param len   the number of bytes
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public abstract void readFully(byte[] bytes, int off, int len) throws IOException;
+
+    /**
+     * Skips exactly {@code count} bytes.
+     *
+     * @param count the number of bytes
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public abstract void skipFully(int count) throws IOException;
+
+    /**
+     * @return a 16 bits little-endian value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract short readShort() throws IOException;
+
+    /**
+     * @return a 32 bits little-endian value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract int readInt() throws IOException;
+
+    /**
+     * Returns the next 32 bits little-endian value without consuming it, so the following read returns it again.
+     * Used to look at the class identifier of a header before choosing the serializer that reads it.
+     *
+     * @return the next 32 bits little-endian value
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public abstract int peekInt() throws IOException;
+
+    /**
+     * @return a 64 bits little-endian value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract long readLong() throws IOException;
+
+    /**
+     * @return an unsigned LEB128 varint of up to 5 bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract int readVarInt() throws IOException;
+
+    /**
+     * @return an unsigned LEB128 varint of up to 10 bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract long readVarLong() throws IOException;
+
+    /**
+     * Reads {@code len} consecutive unsigned LEB128 varints of up to 5 bytes.
+     * Implementations backed by memory decode them a word at a time.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readVarInts(int[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = readVarInt();
+    }
+
+    /**
+     * Reads {@code len} consecutive unsigned LEB128 varints of up to 10 bytes.
+     * Implementations backed by memory decode them a word at a time.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readVarLongs(long[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = readVarLong();
+    }
+
+    /**
+     * Reads {@code len} short values written by {@link CcOutput#writeShorts(short[], int, int)}.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readShorts(short[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = readShort();
+    }
+
+    /**
+     * Reads {@code len} char values written by {@link CcOutput#writeChars(char[], int, int)}.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readChars(char[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = (char) readShort();
+    }
+
+    /**
+     * Reads {@code len} int values written by {@link CcOutput#writeInts(int[], int, int)}.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readInts(int[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = readInt();
+    }
+
+    /**
+     * Reads {@code len} long values written by {@link CcOutput#writeLongs(long[], int, int)}.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readLongs(long[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = readLong();
+    }
+
+    /**
+     * Reads {@code len} float values written by {@link CcOutput#writeFloats(float[], int, int)}.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readFloats(float[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = Float.intBitsToFloat(readInt());
+    }
+
+    /**
+     * Reads {@code len} double values written by {@link CcOutput#writeDoubles(double[], int, int)}.
+     *
+     * @param values the destination array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws EOFException if the source ends before
+     * @throws IOException  if an I/O error occurs
+     */
+    public void readDoubles(double[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            values[i] = Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Returns a string of the dictionary of this source, the counterpart of {@link CcOutput#stringId(String)}.
+     *
+     * @param id the id of the string
+     * @return the very instance added with that id
+     * @throws IOException if there's no string with that id
+     */
+    public String string(int id) throws IOException {
+        if (id < 0 || id >= stringCount)
+            throw new IOException("Unknown string id " + id);
+        return strings[id];
+    }
+
+    /**
+     * Adds a string read inline to the dictionary of this source, under the next id, until the dictionary holds
+     * {@link CcOutput#MAX_DICTIONARY_STRINGS}.
+     *
+     * @param s the string
+     */
+    public void addString(String s) {
+        if (stringCount == CcOutput.MAX_DICTIONARY_STRINGS)
+            return;
+        if (strings == null)
+            strings = new String[16];
+        else if (stringCount == strings.length)
+            strings = Arrays.copyOf(strings, stringCount << 1);
+        strings[stringCount++] = s;
+    }
+
+    /**
+     * Reads a class tag written by {@link CcOutput#writeClassId(int)}.
+     *
+     * @return the class identifier, or 0 for the marker of a null object
+     * @throws IOException if the tag refers to a class not seen by this source, or an I/O error occurs
+     */
+    public int readClassId() throws IOException {
+        if (classIdPeeked) {
+            classIdPeeked = false;
+            return peekedClassId;
+        }
+        int tag = readVarInt();
+        if (tag == 0)
+            return 0;
+        if (tag == 1) {
+            int objectId = readInt();
+            if (classIds == null)
+                classIds = new int[8];
+            else if (classCount == classIds.length)
+                classIds = Arrays.copyOf(classIds, classCount << 1);
+            classIds[classCount++] = objectId;
+            return objectId;
+        }
+        if (tag - 2 >= classCount)
+            throw new IOException("Unknown class tag " + tag);
+        return classIds[tag - 2];
+    }
+
+    /**
+     * Reads a class tag like {@link #readClassId()}, the next call of which returns the same identifier again.
+     *
+     * @return the class identifier, or 0 for the marker of a null object
+     * @throws IOException if the tag refers to a class not seen by this source, or an I/O error occurs
+     */
+    public int peekClassId() throws IOException {
+        if (!classIdPeeked) {
+            peekedClassId = readClassId();
+            classIdPeeked = true;
+        }
+        return peekedClassId;
+    }
+
+    /**
+     * Gives the next id to an object being read, the counterpart of {@link CcOutput#addReference(Object)}.
+     *
+     * @param obj the object, created before its fields are read so they can refer back to it
+     */
+    public void addReference(Object obj) {
+        setReference(reserveReference(), obj);
+    }
+
+    /**
+     * Gives the next id to an object that is only created once its fields are read.
+     *
+     * @return the id, to be passed to {@link #setReference(int, Object)} once the object is created
+     */
+    public int reserveReference() {
+        if (references == null)
+            references = new Object[16];
+        else if (referenceCount == references.length)
+            references = Arrays.copyOf(references, referenceCount << 1);
+        return referenceCount++;
+    }
+
+    /**
+     * @param id  an id returned by {@link #reserveReference()}
+     * @param obj the object created
+     */
+    public void setReference(int id, Object obj) {
+        references[id] = obj;
+    }
+
+    /**
+     * @param id the id of an object read before
+     * @return the object with that id
+     * @throws IOException if there's no object with that id, or it refers to an object still being read that is
+     *                     created by its constructor, which cycles can't go through
+     */
+    public Object reference(int id) throws IOException {
+        if (id < 0 || id >= referenceCount)
+            throw new IOException("Unknown reference " + id);
+        Object obj = references[id];
+        if (obj == null)
+            throw new IOException("Cyclic reference " + id + " to an object created by its constructor");
+        return obj;
+    }
+
+    /**
+     * @return the total number of bytes consumed from this source
+     */
+    public abstract long position();
+
+    /**
+     * Gives the bytes read ahead but not consumed back to the underlying source, when there's one, so it is
+     * positioned right after the last consumed byte.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void release() throws IOException;
+
+    static final long CONTINUATION_BITS = 0x8080808080808080L;
+
+    // number of bytes of the varint starting at the lowest byte of a little-endian word, 0 if longer than 8
+    static int varIntLength(long word) {
+        long stops = ~word & CONTINUATION_BITS;
+        return stops == 0 ? 0 : (Long.numberOfTrailingZeros(stops) + 1) >>> 3;
+    }
+
+    // number of single byte varints at the start of a little-endian word, up to 8
+    static int singleByteRun(long word) {
+        return Long.numberOfTrailingZeros(word & CONTINUATION_BITS) >>> 3;
+    }
+
+    // joins the 7 bits groups of the first length bytes of a little-endian word, without branching on each byte
+    static long varIntBits(long word, int length) {
+        long v = length == 8 ? word : word & ((1L << (length << 3)) - 1);
+        return (v & 0x7FL)
+                | (v >>> 1) & (0x7FL << 7)
+                | (v >>> 2) & (0x7FL << 14)
+                | (v >>> 3) & (0x7FL << 21)
+                | (v >>> 4) & (0x7FL << 28)
+                | (v >>> 5) & (0x7FL << 35)
+                | (v >>> 6) & (0x7FL << 42)
+                | (v >>> 7) & (0x7FL << 49);
+    }
+
+    static EOFException newEndOfStreamException() {
+        return new EOFException("Unexpected end of stream.");
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code CcOutput} class is the sink the generated serializers write into.
+ * <p>
+ * It exposes the primitive operations of the Ccerial wire format (little-endian fixed size values and
+ * varints) as single calls, so implementations can encode straight into their own storage instead of
+ * going through {@link OutputStream#write(int)} once per byte.
+ * </p>
+ * It is still an {@link OutputStream}, so it can be handed to any code expecting one.
+ *
+ * <h2>Usage:</h2>
+ * <pre>{@code
+ * CcOutput out = CcOutput.of(fileOutputStream);
+ * serializer.serialize(out, first);
+ * serializer.serialize(out, second);
+ * out.flush();
+ * }</pre>
+ */
+public abstract class CcOutput extends OutputStream {
+
+    /**
+     * Default size of the buffer used when writing to an {@link OutputStream}.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Size of the buffer used by the single object calls of {@link org.gittorr.ccerial.Serializer} over a stream,
+     * small enough to be cheap to allocate on every call.
+     */
+    public static final int SMALL_BUFFER_SIZE = 512;
+
+    /**
+     * Maximum number of strings a session keeps in its dictionary, the next ones are always written inline.
+     */
+    public static final int MAX_DICTIONARY_STRINGS = 1 << 16;
+
+    private Map<String, Integer> strings;
+    private int[] classIds;
+    private int classCount;
+    private IdentityTable references;
+    private int referenceCount;
+
+    /**
+     * Creates a buffered sink writing to the given stream. If the stream is already a {@code CcOutput} it is
+     * returned as is.
+     *
+     * @param out the target stream
+     * @return the sink
+     */
+    public static CcOutput of(OutputStream out) {
+        return of(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Same as {@link #of(OutputStream)} with a buffer of the given size.
+     *
+     * @param out        the target stream
+     * @param bufferSize the size of the buffer
+     * @return the sink
+     */
+    public static CcOutput of(OutputStream out, int bufferSize) {
+        if (out instanceof CcOutput)
+            return (CcOutput) out;
+        return new ByteArrayCcOutput(out, bufferSize);
+    }
+
+    /**
+     * Creates a buffered sink compressing what is written in blocks of
+     * {@link CompressedOutputStream#DEFAULT_BLOCK_SIZE}, see {@link CompressedOutputStream}. The last block is
+     * written on {@link #flush()} or {@link #close()}.
+     *
+     * @param out the target stream
+     * @return the sink
+     */
+    public static CcOutput ofCompressed(OutputStream out) {
+        return of(new CompressedOutputStream(out));
+    }
+
+    /**
+     * Creates a sink writing straight into the buffer, from its position, with no intermediate copy.
+     * The position of the buffer is updated on {@link #flushBuffer()}.
+     *
+     * @param buffer the target buffer, heap or direct
+     * @return the sink
+     */
+    public static CcOutput of(ByteBuffer buffer) {
+        return new ByteBufferCcOutput(buffer);
+    }
+
+    /**
+     * Creates a sink writing in place into the array, starting at {@code offset}.
+     * Writing past the end of the array throws {@link java.nio.BufferOverflowException}.
+     *
+     * @param dst    the destination array
+     * @param offset the first index to write
+     * @return the sink
+     */
+    public static CcOutput of(byte[] dst, int offset) {
+        return new ByteArrayCcOutput(dst, offset);
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b the byte, only the lowest 8 bits are used
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeByte(int b) throws IOException;
+
+    /**
+     * Writes {@code len} bytes from the array.
+     *
+     * @param bytes the source array
+     * @param off   the start offset
+     * @param len   the number of bytes
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeBytes(byte[] bytes, int off, int len) throws IOException;
+
+    /**
+     * Writes {@code count} zero bytes, used to pad fixed size values.
+     *
+     * @param count the number of zeros
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeZeros(int count) throws IOException;
+
+    /**
+     * Writes a 16 bits value in little-endian order.
+     *
+     * @param s the value, only the lowest 16 bits are used
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeShort(int s) throws IOException;
+
+    /**
+     * Writes a 32 bits value in little-endian order.
+     *
+     * @param i the value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeInt(int i) throws IOException;
+
+    /**
+     * Writes a 64 bits value in little-endian order.
+     *
+     * @param l the value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeLong(long l) throws IOException;
+
+    /**
+     * Writes an unsigned LEB128 varint, from 1 to 5 bytes.
+     *
+     * @param value the value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeVarInt(int value) throws IOException;
+
+    /**
+     * Writes an unsigned LEB128 varint, from 1 to 10 bytes.
+     *
+     * @param value the value
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void writeVarLong(long value) throws IOException;
+
+    /**
+     * Writes {@code len} short values as consecutive 16 bits little-endian values.
+     * Implementations backed by memory copy the whole range as a block.
+     *
+     * @param values the source array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeShorts(short[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            writeShort(values[i]);
+    }
+
+    /**
+     * Writes {@code len} char values as consecutive 16 bits little-endian values.
+     * Implementations backed by memory copy the whole range as a block.
+     *
+     * @param values the source array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeChars(char[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            writeShort(values[i]);
+    }
+
+    /**
+     * Writes {@code len} int values as consecutive 32 bits little-endian values.
+     * Implementations backed by memory copy the whole range as a block.
+     *
+     * @param values the source array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeInts(int[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            writeInt(values[i]);
+    }
+
+    /**
+     * Writes {@code len} long values as consecutive 64 bits little-endian values.
+     * Implementations backed by memory copy the whole range as a block.
+     *
+     * @param values the source array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeLongs(long[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            writeLong(values[i]);
+    }
+
+    /**
+     * Writes {@code len} float values as consecutive 32 bits little-endian values.
+     * Implementations backed by memory copy the whole range as a block.
+     *
+     * @param values the source array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeFloats(float[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            writeInt(Float.floatToRawIntBits(values[i]));
+    }
+
+    /**
+     * Writes {@code len} double values as consecutive 64 bits little-endian values.
+     * Implementations backed by memory copy the whole range as a block.
+     *
+     * @param values the source array
+     * @param off    the first element
+     * @param len    the number of elements
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeDoubles(double[] values, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++)
+            writeLong(Double.doubleToRawLongBits(values[i]));
+    }
+
+    /**
+     * Looks the string up in the dictionary of this sink, which lives as long as the sink, so strings repeated
+     * across all the objects written to it can be written once. A string not found is added with the next id,
+     * until the dictionary holds {@link #MAX_DICTIONARY_STRINGS}.
+     *
+     * @param s the string
+     * @return the id of the string if it was already in the dictionary, or -1
+     */
+    public int stringId(String s) {
+        if (strings == null)
+            strings = new HashMap<>();
+        Integer id = strings.get(s);
+        if (id != null)
+            return id;
+        if (strings.size() < MAX_DICTIONARY_STRINGS)
+            strings.put(s, strings.size());
+        return -1;
+    }
+
+    /**
+     * Writes the tag of a class, given by this sink on the first object of the class. The tag of a class already
+     * written is its index in the dictionary plus 2, a new class is tagged 1 and followed by its identifier.
+     * The tag 0 is left to the marker of a null object.
+     *
+     * @param objectId the class identifier
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeClassId(int objectId) throws IOException {
+        // a session sees a handful of classes, a scan is cheaper than hashing
+        for (int i = 0; i < classCount; i++) {
+            if (classIds[i] == objectId) {
+                writeVarInt(i + 2);
+                return;
+            }
+        }
+        if (classIds == null)
+            classIds = new int[8];
+        else if (classCount == classIds.length)
+            classIds = Arrays.copyOf(classIds, classCount << 1);
+        classIds[classCount++] = objectId;
+        writeVarInt(1);
+        writeInt(objectId);
+    }
+
+    /**
+     * Looks an object up in the references of this sink.
+     *
+     * @param obj the object
+     * @return the id given to the very same instance by {@link #addReference(Object)}, or -1
+     */
+    public int referenceOf(Object obj) {
+        return references != null ? references.get(obj) : -1;
+    }
+
+    /**
+     * Gives the next id to an object about to be written. The references live as long as the sink, so an object
+     * written again later, from any object written to this sink, can be written as its id.
+     *
+     * @param obj the object
+     */
+    public void addReference(Object obj) {
+        if (references == null)
+            references = new IdentityTable();
+        references.put(obj, referenceCount++);
+    }
+
+    /**
+     * Forgets the dictionaries and references of this sink, to be called when the bytes written so far are discarded.
+     */
+    protected void resetSession() {
+        strings = null;
+        classIds = null;
+        classCount = 0;
+        references = null;
+        referenceCount = 0;
+    }
+
+    /**
+     * @return the total number of bytes written to this sink
+     */
+    public abstract long position();
+
+    /**
+     * Hands the buffered bytes to the underlying target, if there's one, without flushing the target itself.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void flushBuffer() throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        writeBytes(b, off, len);
+    }
+
+}
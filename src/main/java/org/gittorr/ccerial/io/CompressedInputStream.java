@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link InputStream} reading the blocks written by {@link CompressedOutputStream}, a block at a time.
+ * <p>
+ * The records are read through a single {@link CcInput} over this stream, which is what
+ * {@link CcInput#ofCompressed(InputStream)} returns:
+ * </p>
+ * <pre>{@code
+ * CcInput in = CcInput.ofCompressed(fileInputStream);
+ * CustomerOrder order = serializer.deserialize(in);
+ * }</pre>
+ */
+public class CompressedInputStream extends InputStream {
+
+    private final InputStream in;
+    private final byte[] header = new byte[CompressedOutputStream.FRAME_HEADER_SIZE];
+    private byte[] block = new byte[0];
+    private byte[] stored = new byte[0];
+    private int position;
+    private int limit;
+
+    /**
+     * @param in the stream of blocks
+     */
+    public CompressedInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !nextBlock())
+            return -1;
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (position == limit && !nextBlock())
+            return -1;
+        int n = Math.min(len, limit - position);
+        System.arraycopy(block, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (!readFully(in, header, 0, header.length, true))
+            return false;
+        int rawLength = readIntLE(header, 0);
+        int storedLength = readIntLE(header, 4);
+        checkFrame(rawLength, storedLength);
+        if (block.length < rawLength)
+            block = new byte[rawLength];
+        if (storedLength == rawLength) {
+            readFully(in, block, 0, rawLength, false);
+        } else {
+            if (stored.length < storedLength)
+                stored = new byte[storedLength];
+            readFully(in, stored, 0, storedLength, false);
+            LzBlockCodec.decompress(stored, 0, storedLength, block, 0, rawLength);
+        }
+        position = 0;
+        limit = rawLength;
+        return true;
+    }
+
+    static void checkFrame(int rawLength, int storedLength) throws IOException {
+        if (rawLength <= 0 || rawLength > CompressedOutputStream.MAX_BLOCK_SIZE || storedLength <= 0 || storedLength > rawLength)
+            throw new IOException("Invalid block header, raw size " + rawLength + " and stored size " + storedLength);
+    }
+
+    static int readIntLE(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+
+    // returns false if the stream ends before the first byte and that is allowed
+    static boolean readFully(InputStream in, byte[] b, int off, int len, boolean endAllowed) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = in.read(b, off + read, len - read);
+            if (n < 0) {
+                if (read == 0 && endAllowed)
+                    return false;
+                throw new EOFException("Unexpected end of compressed stream.");
+            }
+            read += n;
+        }
+        return true;
+    }
+
+}
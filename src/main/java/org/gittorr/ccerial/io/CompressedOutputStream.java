@@ -0,0 +1,209 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link OutputStream} compressing what is written to it in independent blocks, with a fast LZ77 codec of the
+ * LZ4 family.
+ * <p>
+ * Each block is written as a frame: its raw size and its stored size as 32 bits little-endian values, then the
+ * stored bytes. A block that doesn't shrink is stored raw, its stored size being equal to its raw size, so the
+ * stream is never more than 8 bytes per block bigger than its content. {@link CompressedInputStream} reads it back.
+ * </p>
+ * <p>
+ * A block is written when it is full, on {@link #flush()} and on {@link #close()}, so it works with any
+ * {@link org.gittorr.ccerial.Serializer} writing to a stream:
+ * </p>
+ * <pre>{@code
+ * try (CcOutput out = CcOutput.ofCompressed(fileOutputStream)) {
+ *     for (CustomerOrder order : orders)
+ *         serializer.serialize(out, order);
+ * }
+ * }</pre>
+ * <p>
+ * Records written with {@link #writeRecord(Serializer, Object)}, or followed by {@link #endRecord()}, are kept
+ * whole in a block when the block is cut in its second half, so each block can be decoded on its own.
+ * </p>
+ */
+public class CompressedOutputStream extends OutputStream {
+
+    /**
+     * Default size of the blocks compressed at once.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Maximum size of a block.
+     */
+    public static final int MAX_BLOCK_SIZE = 16 * 1024 * 1024;
+
+    static final int FRAME_HEADER_SIZE = 8;
+
+    protected final OutputStream out;
+    private final byte[] block;
+    private byte[] frame;
+    private LzBlockCodec codec;
+    private int count;
+    private int recordEnd;
+    private CcOutput records;
+
+    /**
+     * Creates a stream compressing blocks of {@link #DEFAULT_BLOCK_SIZE}.
+     *
+     * @param out the target stream
+     */
+    public CompressedOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param out       the target stream
+     * @param blockSize the size of the blocks, bigger blocks compress better but take longer to fill
+     */
+    public CompressedOutputStream(OutputStream out, int blockSize) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE)
+            throw new IllegalArgumentException("Invalid block size " + blockSize);
+        this.out = out;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == block.length)
+            cutBlock();
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == block.length)
+                cutBlock();
+            int n = Math.min(len, block.length - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Marks the end of a record, the next full block is cut there if it is in its second half.
+     */
+    public void endRecord() {
+        recordEnd = count;
+    }
+
+    /**
+     * Serializes a record and marks its end. The records share a single {@link CcOutput}, and so its
+     * dictionaries when the serializer has features using them.
+     *
+     * @param serializer the serializer of the record
+     * @param record     the record
+     * @param <E>        the type of the record
+     * @throws IOException if an I/O error occurs
+     */
+    public <E> void writeRecord(Serializer<E> serializer, E record) throws IOException {
+        if (records == null)
+            records = CcOutput.of(this);
+        serializer.serialize(records, record);
+        records.flushBuffer();
+        endRecord();
+    }
+
+    // writes the full block up to the last record end, or whole, and keeps what follows
+    private void cutBlock() throws IOException {
+        int end = recordEnd >= block.length >>> 1 ? recordEnd : count;
+        writeBlock(block, end);
+        System.arraycopy(block, end, block, 0, count - end);
+        count -= end;
+        recordEnd = 0;
+    }
+
+    /**
+     * Compresses and writes a block. The block array is reused once this method returns.
+     *
+     * @param block the block
+     * @param len   the size of the block
+     * @throws IOException if an I/O error occurs
+     */
+    protected void writeBlock(byte[] block, int len) throws IOException {
+        if (codec == null) {
+            codec = new LzBlockCodec();
+            frame = new byte[FRAME_HEADER_SIZE + block.length];
+        }
+        out.write(frame, 0, encodeFrame(codec, block, len, frame));
+    }
+
+    /**
+     * Writes the current block, even if it isn't full.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    protected void writeBlocks() throws IOException {
+        if (records != null)
+            records.flushBuffer();
+        if (count > 0)
+            writeBlock(block, count);
+        count = 0;
+        recordEnd = 0;
+    }
+
+    /**
+     * Writes the current block, even if it isn't full, and flushes the target stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBlocks();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlocks();
+        } finally {
+            out.close();
+        }
+    }
+
+    // compresses len bytes of block into a frame, as big as the block plus its header, and returns its size
+    static int encodeFrame(LzBlockCodec codec, byte[] block, int len, byte[] frame) {
+        int stored = codec.compress(block, 0, len, frame, FRAME_HEADER_SIZE, len - 1);
+        if (stored < 0) {
+            System.arraycopy(block, 0, frame, FRAME_HEADER_SIZE, len);
+            stored = len;
+        }
+        writeIntLE(frame, 0, len);
+        writeIntLE(frame, 4, stored);
+        return FRAME_HEADER_SIZE + stored;
+    }
+
+    private static void writeIntLE(byte[] b, int off, int v) {
+        b[off] = (byte) v;
+        b[off + 1] = (byte) (v >>> 8);
+        b[off + 2] = (byte) (v >>> 16);
+        b[off + 3] = (byte) (v >>> 24);
+    }
+
+}
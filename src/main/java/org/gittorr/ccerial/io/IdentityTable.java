@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+/*
+ * Open addressing map from object identities to the int ids given to them, probing linearly from a
+ * multiplicative hash of System.identityHashCode. Keys are compared with ==, so equal but distinct objects get
+ * ids of their own, and nothing is boxed.
+ */
+final class IdentityTable {
+
+    private Object[] keys = new Object[64];
+    private int[] values = new int[64];
+    private int size;
+    private int shift = 32 - 6;
+
+    private int slot(Object key) {
+        return (System.identityHashCode(key) * 0x9E3779B9) >>> shift;
+    }
+
+    int get(Object key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == key)
+                return values[i];
+            if (k == null)
+                return -1;
+        }
+    }
+
+    void put(Object key, int value) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length >>> 1)
+            grow();
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        shift--;
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object key = oldKeys[j];
+            if (key == null)
+                continue;
+            int i = slot(key);
+            while (keys[i] != null)
+                i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/*
+ * LZ77 codec of a single block, laid out like the LZ4 block format: each sequence is a token with the literal
+ * length in the high nibble and the match length minus 4 in the low one, extended by bytes of 255 when a nibble
+ * is 15, then the literals, then the little-endian 16 bits offset of the match. The last sequence only has
+ * literals. Matches are found through a hash table of the 4 bytes sequences, with no chain, which trades some
+ * ratio for speed. An instance keeps its table between blocks, so it must not be shared between threads.
+ */
+final class LzBlockCodec {
+
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int MIN_MATCH = 4;
+    // the last bytes are always literals and no match starts in the last 12 bytes
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 14;
+    // after 64 positions with no match the search starts skipping bytes
+    private static final int SKIP_TRIGGER = 6;
+
+    // positions of the sequences, relative to the start of the block plus one, 0 being empty
+    private final int[] table = new int[1 << HASH_LOG];
+
+    private static int hash(int sequence) {
+        return (sequence * 0x9E3779B1) >>> (32 - HASH_LOG);
+    }
+
+    // number of equal bytes at a and b, b being before a, comparing 8 bytes at a time
+    private static int matchLength(byte[] src, int a, int b, int limit) {
+        int start = a;
+        while (a + Long.BYTES <= limit) {
+            long diff = (long) LONG.get(src, a) ^ (long) LONG.get(src, b);
+            if (diff != 0)
+                return a - start + (Long.numberOfTrailingZeros(diff) >>> 3);
+            a += Long.BYTES;
+            b += Long.BYTES;
+        }
+        while (a < limit && src[a] == src[b]) {
+            a++;
+            b++;
+        }
+        return a - start;
+    }
+
+    private static int writeLength(byte[] dst, int d, int length) {
+        while (length >= 255) {
+            dst[d++] = (byte) 255;
+            length -= 255;
+        }
+        dst[d++] = (byte) length;
+        return d;
+    }
+
+    /**
+     * Compresses {@code len} bytes of {@code src} into {@code dst}.
+     *
+     * @return the compressed size, or -1 if it would be more than {@code limit} bytes
+     */
+    int compress(byte[] src, int off, int len, byte[] dst, int dstOff, int limit) {
+        int end = off + len;
+        int anchor = off;
+        int d = dstOff;
+        int dEnd = dstOff + limit;
+        if (len > MATCH_FIND_LIMIT) {
+            Arrays.fill(table, 0);
+            int matchLimit = end - MATCH_FIND_LIMIT;
+            int lastLiteral = end - LAST_LITERALS;
+            int p = off;
+            int searches = 1 << SKIP_TRIGGER;
+            while (p < matchLimit) {
+                int sequence = (int) INT.get(src, p);
+                int h = hash(sequence);
+                int ref = table[h] - 1 + off;
+                table[h] = p - off + 1;
+                if (ref < off || p - ref > MAX_OFFSET || (int) INT.get(src, ref) != sequence) {
+                    p += searches++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                searches = 1 << SKIP_TRIGGER;
+                while (p > anchor && ref > off && src[p - 1] == src[ref - 1]) {
+                    p--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH + matchLength(src, p + MIN_MATCH, ref + MIN_MATCH, lastLiteral);
+                int literals = p - anchor;
+                // token, literals with their length, offset and match length
+                if (d + 1 + literals + literals / 255 + 1 + 2 + matchLength / 255 + 1 > dEnd)
+                    return -1;
+                int token = d++;
+                if (literals >= 15) {
+                    dst[token] = (byte) 0xF0;
+                    d = writeLength(dst, d, literals - 15);
+                } else {
+                    dst[token] = (byte) (literals << 4);
+                }
+                System.arraycopy(src, anchor, dst, d, literals);
+                d += literals;
+                int offset = p - ref;
+                dst[d++] = (byte) offset;
+                dst[d++] = (byte) (offset >>> 8);
+                int extra = matchLength - MIN_MATCH;
+                if (extra >= 15) {
+                    dst[token] |= 0x0F;
+                    d = writeLength(dst, d, extra - 15);
+                } else {
+                    dst[token] |= (byte) extra;
+                }
+                p += matchLength;
+                anchor = p;
+                if (p < matchLimit)
+                    table[hash((int) INT.get(src, p - 2))] = p - 2 - off + 1;
+            }
+        }
+        int literals = end - anchor;
+        if (d + 1 + literals + literals / 255 + 1 > dEnd)
+            return -1;
+        if (literals >= 15) {
+            dst[d++] = (byte) 0xF0;
+            d = writeLength(dst, d, literals - 15);
+        } else {
+            dst[d++] = (byte) (literals << 4);
+        }
+        System.arraycopy(src, anchor, dst, d, literals);
+        d += literals;
+        return d - dstOff;
+    }
+
+    private static IOException corrupted() {
+        return new IOException("Corrupted compressed block");
+    }
+
+    /**
+     * Decompresses {@code len} bytes of {@code src}, which must give exactly {@code rawLength} bytes.
+     *
+     * @throws IOException if the block is corrupted
+     */
+    static void decompress(byte[] src, int off, int len, byte[] dst, int dstOff, int rawLength) throws IOException {
+        int s = off;
+        int end = off + len;
+        int d = dstOff;
+        int dEnd = dstOff + rawLength;
+        while (true) {
+            if (s >= end)
+                throw corrupted();
+            int token = src[s++] & 0xFF;
+            int literals = token >>> 4;
+            if (literals == 15) {
+                int b;
+                do {
+                    if (s >= end)
+                        throw corrupted();
+                    b = src[s++] & 0xFF;
+                    literals += b;
+                } while (b == 255);
+            }
+            if (literals > end - s || literals > dEnd - d)
+                throw corrupted();
+            System.arraycopy(src, s, dst, d, literals);
+            s += literals;
+            d += literals;
+            if (s == end)
+                break;
+            if (end - s < 2)
+                throw corrupted();
+            int offset = (src[s] & 0xFF) | (src[s + 1] & 0xFF) << 8;
+            s += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (s >= end)
+                        throw corrupted();
+                    b = src[s++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            int ref = d - offset;
+            if (offset == 0 || ref < dstOff || matchLength > dEnd - d)
+                throw corrupted();
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, d, matchLength);
+            } else {
+                // the match overlaps the bytes it produces, e.g. a run of a single byte
+                for (int i = 0; i < matchLength; i++)
+                    dst[d + i] = dst[ref + i];
+            }
+            d += matchLength;
+        }
+        if (d != dEnd)
+            throw corrupted();
+    }
+
+}
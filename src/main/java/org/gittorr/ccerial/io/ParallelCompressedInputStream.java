@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An {@link InputStream} reading the blocks written by {@link CompressedOutputStream} or
+ * {@link ParallelCompressedOutputStream}, decompressing the next blocks ahead in parallel on a
+ * {@link ForkJoinPool} or any other {@link Executor}.
+ * <p>
+ * The frames are read on the caller thread, up to {@code readAhead} blocks ahead of the one being consumed, and
+ * the bytes are returned in order. When the blocks were cut at record ends, the records of a block are decoded
+ * as soon as that block is decompressed:
+ * </p>
+ * <pre>{@code
+ * CcInput in = CcInput.of(new ParallelCompressedInputStream(fileInputStream));
+ * CustomerOrder order = serializer.deserialize(in);
+ * }</pre>
+ */
+public class ParallelCompressedInputStream extends InputStream {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final InputStream in;
+    private final Executor executor;
+    private final int readAhead;
+    private final byte[] header = new byte[CompressedOutputStream.FRAME_HEADER_SIZE];
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private boolean ended;
+    private byte[] block = EMPTY;
+    private int position;
+
+    /**
+     * Creates a stream decompressing ahead on the common {@link ForkJoinPool}.
+     *
+     * @param in the stream of blocks
+     */
+    public ParallelCompressedInputStream(InputStream in) {
+        this(in, ForkJoinPool.commonPool(), 2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param in        the stream of blocks
+     * @param executor  the executor decompressing the blocks
+     * @param readAhead the maximum number of blocks read ahead
+     */
+    public ParallelCompressedInputStream(InputStream in, Executor executor, int readAhead) {
+        if (readAhead <= 0)
+            throw new IllegalArgumentException("Invalid read ahead " + readAhead);
+        this.in = in;
+        this.executor = executor;
+        this.readAhead = readAhead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == block.length && !nextBlock())
+            return -1;
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (position == block.length && !nextBlock())
+            return -1;
+        int n = Math.min(len, block.length - position);
+        System.arraycopy(block, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pending.clear();
+        in.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        readFrames();
+        CompletableFuture<byte[]> next = pending.poll();
+        if (next == null)
+            return false;
+        // the slot is taken again before waiting, so the pool keeps busy
+        readFrames();
+        block = ParallelCompressedOutputStream.await(next);
+        position = 0;
+        return true;
+    }
+
+    private void readFrames() throws IOException {
+        while (!ended && pending.size() < readAhead) {
+            if (!CompressedInputStream.readFully(in, header, 0, header.length, true)) {
+                ended = true;
+                return;
+            }
+            int rawLength = CompressedInputStream.readIntLE(header, 0);
+            int storedLength = CompressedInputStream.readIntLE(header, 4);
+            CompressedInputStream.checkFrame(rawLength, storedLength);
+            byte[] stored = new byte[storedLength];
+            CompressedInputStream.readFully(in, stored, 0, storedLength, false);
+            if (storedLength == rawLength) {
+                pending.add(CompletableFuture.completedFuture(stored));
+                continue;
+            }
+            pending.add(CompletableFuture.supplyAsync(() -> {
+                byte[] raw = new byte[rawLength];
+                try {
+                    LzBlockCodec.decompress(stored, 0, storedLength, raw, 0, rawLength);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return raw;
+            }, executor));
+        }
+    }
+
+}
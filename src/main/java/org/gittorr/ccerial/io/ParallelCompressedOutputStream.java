@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A {@link CompressedOutputStream} compressing its blocks in parallel, on a {@link ForkJoinPool} or any other
+ * {@link Executor}, while the caller fills the next ones. The frames are written in the order of the blocks, so
+ * the output is the same as the sequential stream's, and it is read back by {@link CompressedInputStream} or
+ * {@link ParallelCompressedInputStream}.
+ * <p>
+ * At most {@code maxPending} blocks are compressed at once, the caller waits for the oldest one beyond that, which
+ * bounds the memory used to about two blocks per pending block.
+ * </p>
+ */
+public class ParallelCompressedOutputStream extends CompressedOutputStream {
+
+    // codecs keep a table between blocks, one per thread of the executor
+    private static final ThreadLocal<LzBlockCodec> CODECS = ThreadLocal.withInitial(LzBlockCodec::new);
+
+    private final Executor executor;
+    private final int maxPending;
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+    /**
+     * Creates a stream compressing blocks of {@link #DEFAULT_BLOCK_SIZE} on the common {@link ForkJoinPool}.
+     *
+     * @param out the target stream
+     */
+    public ParallelCompressedOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool(), 2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param out        the target stream
+     * @param blockSize  the size of the blocks
+     * @param executor   the executor compressing the blocks
+     * @param maxPending the maximum number of blocks being compressed at once
+     */
+    public ParallelCompressedOutputStream(OutputStream out, int blockSize, Executor executor, int maxPending) {
+        super(out, blockSize);
+        if (maxPending <= 0)
+            throw new IllegalArgumentException("Invalid number of pending blocks " + maxPending);
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    protected void writeBlock(byte[] block, int len) throws IOException {
+        byte[] raw = Arrays.copyOf(block, len);
+        pending.add(CompletableFuture.supplyAsync(() -> {
+            byte[] frame = new byte[FRAME_HEADER_SIZE + len];
+            encodeFrame(CODECS.get(), raw, len, frame);
+            return frame;
+        }, executor));
+        while (pending.size() > maxPending)
+            writeFrame(pending.poll());
+    }
+
+    @Override
+    protected void writeBlocks() throws IOException {
+        super.writeBlocks();
+        while (!pending.isEmpty())
+            writeFrame(pending.poll());
+    }
+
+    private void writeFrame(CompletableFuture<byte[]> future) throws IOException {
+        byte[] frame = await(future);
+        out.write(frame, 0, FRAME_HEADER_SIZE + CompressedInputStream.readIntLE(frame, 4));
+    }
+
+    static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the records written by {@link RecordWriter} lazily, one at a time.
+ * <p>
+ * Only the record being decoded is held in memory, in a buffer reused from one record to the next, so a stream of
+ * any size is read in constant memory. Records can be skipped without being decoded, after looking at their
+ * object identifier when they were written with it:
+ * </p>
+ * <pre>{@code
+ * try (RecordReader<CustomerOrder> reader = new RecordReader<>(fileChannel, serializer)) {
+ *     double total = reader.stream().mapToDouble(CustomerOrder::getTotal).sum();
+ * }
+ * }</pre>
+ * <p>
+ * Lengths above the maximum record size, {@link #DEFAULT_MAX_RECORD_SIZE} unless given, are rejected before
+ * anything is allocated for them, so a corrupted length can't exhaust the memory. As an {@link Iterator} the reader
+ * reports I/O errors as {@link UncheckedIOException}.
+ * </p>
+ *
+ * @param <E> the type of the records
+ */
+public class RecordReader<E> implements Iterator<E>, Closeable {
+
+    /**
+     * Default maximum size of a record.
+     */
+    public static final int DEFAULT_MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private final InputStream source;
+    private final CcInput in;
+    private final Serializer<E> serializer;
+    private final int features;
+    private final int maxRecordSize;
+    private byte[] record = new byte[256];
+    private int nextLength = -1;
+    private int nextObjectId;
+    private boolean ended;
+
+    /**
+     * Creates a reader of records of a single class.
+     *
+     * @param in         the source stream
+     * @param serializer the serializer of the records
+     */
+    public RecordReader(InputStream in, Serializer<E> serializer) {
+        this(in, serializer, DEFAULT_MAX_RECORD_SIZE);
+    }
+
+    /**
+     * Creates a reader of records of a single class.
+     *
+     * @param in            the source stream
+     * @param serializer    the serializer of the records
+     * @param maxRecordSize the maximum size of a record, bigger lengths are taken as corrupted
+     */
+    public RecordReader(InputStream in, Serializer<E> serializer, int maxRecordSize) {
+        this(in, Objects.requireNonNull(serializer, "serializer"), 0, maxRecordSize);
+    }
+
+    /**
+     * Creates a reader of records of a single class from the current position of a file. The channel is
+     * closed with the reader.
+     *
+     * @param channel    the file
+     * @param serializer the serializer of the records
+     */
+    public RecordReader(FileChannel channel, Serializer<E> serializer) {
+        this(channel, serializer, DEFAULT_MAX_RECORD_SIZE);
+    }
+
+    /**
+     * Creates a reader of records of a single class from the current position of a file. The channel is
+     * closed with the reader.
+     *
+     * @param channel       the file
+     * @param serializer    the serializer of the records
+     * @param maxRecordSize the maximum size of a record, bigger lengths are taken as corrupted
+     */
+    public RecordReader(FileChannel channel, Serializer<E> serializer, int maxRecordSize) {
+        this(Channels.newInputStream(channel), serializer, maxRecordSize);
+    }
+
+    private RecordReader(InputStream in, Serializer<E> serializer, int features, int maxRecordSize) {
+        if (maxRecordSize <= 0)
+            throw new IllegalArgumentException("Invalid maximum record size " + maxRecordSize);
+        this.source = in;
+        this.in = CcInput.of(in.markSupported() ? in : new BufferedInputStream(in, CcOutput.DEFAULT_BUFFER_SIZE));
+        this.serializer = serializer;
+        this.features = features;
+        this.maxRecordSize = maxRecordSize;
+    }
+
+    /**
+     * Creates a reader of records written by {@link RecordWriter#withClassIds(java.io.OutputStream, SerializerFeature...)},
+     * each one decoded by the serializer of its object identifier.
+     *
+     * @param in       the source stream
+     * @param features the features of the serializers, as used to write the records
+     * @return the reader
+     */
+    public static RecordReader<Object> withClassIds(InputStream in, SerializerFeature... features) {
+        return withClassIds(in, DEFAULT_MAX_RECORD_SIZE, features);
+    }
+
+    /**
+     * Same as {@link #withClassIds(InputStream, SerializerFeature...)} with a maximum record size.
+     *
+     * @param in            the source stream
+     * @param maxRecordSize the maximum size of a record, bigger lengths are taken as corrupted
+     * @param features      the features of the serializers, as used to write the records
+     * @return the reader
+     */
+    public static RecordReader<Object> withClassIds(InputStream in, int maxRecordSize, SerializerFeature... features) {
+        return new RecordReader<>(in, null, SerializerFeature.maskOf(features), maxRecordSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return readRecordHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public E next() {
+        try {
+            return read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record
+     * @throws NoSuchElementException if there are no more records
+     * @throws IOException            if an I/O error occurs or the record is corrupted
+     */
+    public E read() throws IOException {
+        if (!readRecordHeader())
+            throw new NoSuchElementException();
+        int length = nextLength;
+        nextLength = -1;
+        if (record.length < length)
+            record = new byte[(int) Math.min(maxRecordSize, Math.max(length, (long) record.length << 1))];
+        in.readFully(record, 0, length);
+        Serializer<E> serializer = this.serializer;
+        if (serializer == null)
+            serializer = Ccerial.getSerializer(nextObjectId, features);
+        CcInput recordIn = CcInput.of(record, 0, length);
+        E entity = serializer.deserialize(recordIn);
+        if (recordIn.position() != length)
+            throw new IOException("Record length mismatch, " + recordIn.position() + " bytes read of " + length);
+        return entity;
+    }
+
+    /**
+     * Skips the next record without decoding it.
+     *
+     * @return false if there are no more records
+     * @throws EOFException if the stream ends within the record
+     * @throws IOException  if an I/O error occurs or the length of the record is corrupted
+     */
+    public boolean skip() throws IOException {
+        if (!readRecordHeader())
+            return false;
+        in.skipFully(nextLength);
+        nextLength = -1;
+        return true;
+    }
+
+    /**
+     * @return the object identifier of the next record, when the records were written with their identifiers
+     * @throws NoSuchElementException if there are no more records
+     * @throws IllegalStateException  if the records were written without their identifiers
+     * @throws IOException            if an I/O error occurs
+     */
+    public int nextObjectId() throws IOException {
+        if (serializer != null)
+            throw new IllegalStateException("Records have no object identifiers");
+        if (!readRecordHeader())
+            throw new NoSuchElementException();
+        return nextObjectId;
+    }
+
+    /**
+     * @return the length in bytes of the next record
+     * @throws NoSuchElementException if there are no more records
+     * @throws IOException            if an I/O error occurs
+     */
+    public int nextLength() throws IOException {
+        if (!readRecordHeader())
+            throw new NoSuchElementException();
+        return nextLength;
+    }
+
+    // reads the length, and the identifier, of the next record unless it was already read
+    private boolean readRecordHeader() throws IOException {
+        if (nextLength >= 0)
+            return true;
+        if (ended)
+            return false;
+        int b = in.read();
+        if (b < 0) {
+            ended = true;
+            return false;
+        }
+        long length = b < 0x80 ? b : b & 0x7F | (in.readVarInt() & 0xFFFFFFFFL) << 7;
+        if (length > maxRecordSize)
+            throw new IOException("Record length " + length + " exceeds the maximum of " + maxRecordSize);
+        if (serializer == null)
+            nextObjectId = in.readInt();
+        nextLength = (int) length;
+        return true;
+    }
+
+    /**
+     * @return a sequential stream of the remaining records, closing this reader when closed
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.utils.AbstractSerializer;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Writes records to a stream, each one prefixed with its length as a var int so that {@link RecordReader} can
+ * read them one at a time, or skip them without decoding them.
+ * <p>
+ * Every record is serialized on its own, its dictionaries and references don't span records. Writers created
+ * with {@link #withClassIds(OutputStream, SerializerFeature...)} also write the object identifier of each record
+ * after its length, so records of different classes can be mixed in the same stream:
+ * </p>
+ * <pre>{@code
+ * try (RecordWriter<CustomerOrder> writer = new RecordWriter<>(fileOutputStream, serializer)) {
+ *     for (CustomerOrder order : orders)
+ *         writer.write(order);
+ * }
+ * }</pre>
+ *
+ * @param <E> the type of the records
+ */
+public class RecordWriter<E> implements Closeable, Flushable {
+
+    private final OutputStream target;
+    private final CcOutput out;
+    private final Serializer<E> serializer;
+    private final int features;
+    private final ByteArrayCcOutput record = new ByteArrayCcOutput();
+    private long count;
+
+    /**
+     * Creates a writer of records of a single class.
+     *
+     * @param out        the target stream
+     * @param serializer the serializer of the records
+     */
+    public RecordWriter(OutputStream out, Serializer<E> serializer) {
+        this(out, Objects.requireNonNull(serializer, "serializer"), 0);
+    }
+
+    private RecordWriter(OutputStream out, Serializer<E> serializer, int features) {
+        this.target = out;
+        this.out = CcOutput.of(out);
+        this.serializer = serializer;
+        this.features = features;
+    }
+
+    /**
+     * Creates a writer of records of any serializable class, each one written with its object identifier.
+     *
+     * @param out      the target stream
+     * @param features the features of the serializers
+     * @return the writer
+     */
+    public static RecordWriter<Object> withClassIds(OutputStream out, SerializerFeature... features) {
+        return new RecordWriter<>(out, null, SerializerFeature.maskOf(features));
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param entity the record
+     * @throws IOException if an I/O error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public void write(E entity) throws IOException {
+        Objects.requireNonNull(entity, "entity");
+        Serializer<E> serializer = this.serializer;
+        if (serializer == null)
+            serializer = (Serializer<E>) Ccerial.getSerializer(entity.getClass(), features);
+        record.reset();
+        serializer.serialize(record, entity);
+        record.flushBuffer();
+        out.writeVarInt((int) record.position());
+        if (this.serializer == null)
+            out.writeInt(objectIdOf(serializer));
+        record.writeTo(out);
+        count++;
+    }
+
+    private static int objectIdOf(Serializer<?> serializer) {
+        if (!(serializer instanceof AbstractSerializer))
+            throw new IllegalArgumentException("No object identifier for " + serializer.getClass().getName());
+        return ((AbstractSerializer<?>) serializer).getObjectId();
+    }
+
+    /**
+     * @return the number of records written
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.flushBuffer();
+        } finally {
+            target.close();
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import org.gittorr.ccerial.utils.ClassIdentifierGenerator;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
 import org.gittorr.ccerial.utils.FieldAccessorWriter;
 import org.gittorr.ccerial.utils.FieldAccessorWriterManager;
+import org.gittorr.ccerial.utils.NestedSerializers;
 
 import javax.annotation.processing.*;
 import javax.lang.model.element.Element;
@@ -32,13 +33,17 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
+import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -46,22 +51,43 @@ import java.util.stream.Stream;
 @SupportedAnnotationTypes("org.gittorr.ccerial.CcSerializable")
 public class CcerialProcessor extends AbstractProcessor {
 
+    private static final String REGISTRY_SERVICE = "META-INF/services/org.gittorr.ccerial.SerializerRegistry";
+
+    // registries generated in the previous rounds
+    private final List<String> registries = new ArrayList<>();
+    // classes of all rounds by identifier, to detect collisions
+    private final Map<Integer, String> allClassesByOid = new HashMap<>();
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         CodeWriterUtils.setTypeUtils(processingEnv.getTypeUtils());
         CodeWriterUtils.setElementUtils(processingEnv.getElementUtils());
         Filer filer = processingEnv.getFiler();
-        Properties properties = new Properties();
+        Map<Integer, String> classesByOid = new LinkedHashMap<>();
+        String registryPackage = null;
         for (Element el : roundEnv.getElementsAnnotatedWith(CcSerializable.class)) {
             // The full name of the original class
             TypeElement classElement = (TypeElement) el;
             String className = classElement.getQualifiedName().toString();
             String packageName = processingEnv.getElementUtils().getPackageOf(classElement).getQualifiedName().toString();
             String generatedClassName = "ccerial." + className + "_CcerialSerializer";
-            properties.put(className, generatedClassName);
             CcSerializable annotation = classElement.getAnnotation(CcSerializable.class);
             boolean isRecord = !classElement.getRecordComponents().isEmpty();
             int objId = annotation.classIdentifier() != 0 ? annotation.classIdentifier() : ClassIdentifierGenerator.INSTANCE.generateIdentifier(className);
+            if (objId == 0) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Class identifier of " + className
+                        + " is 0, which marks null objects, set a classIdentifier", classElement);
+                continue;
+            }
+            String previous = allClassesByOid.putIfAbsent(objId, className);
+            if (previous != null && !previous.equals(className)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Class identifier " + objId + " of " + className
+                        + " collides with " + previous + ", set a distinct classIdentifier on one of them", classElement);
+                continue;
+            }
+            classesByOid.put(objId, className);
+            if (registryPackage == null)
+                registryPackage = "ccerial." + packageName;
             try {
                 // Create the output file
                 JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(generatedClassName);
@@ -70,52 +96,75 @@ public class CcerialProcessor extends AbstractProcessor {
                 try (Writer writer = sourceFile.openWriter()) {
                     writer.write("package ccerial." + packageName + ";\n\n");
                     writer.write("import org.gittorr.ccerial.*;\n");
+                    writer.write("import org.gittorr.ccerial.io.*;\n");
                     writer.write("import org.gittorr.ccerial.utils.*;\n");
-                    writer.write("public class " + generatedClassName.substring(packageName.length() + 9) + " extends AbstractSerializer<"+className+"> {\n");
+                    String simpleName = generatedClassName.substring(packageName.length() + 9);
+                    // the methods are generated first, they tell which nested serializers the constructor resolves
+                    NestedSerializers nestedSerializers = new NestedSerializers(classElement);
+                    StringWriter body = new StringWriter();
 
                     // Generate serialization method
-                    writer.write("    public void serialize(java.io.OutputStream out, " + className + " obj) throws java.io.IOException {\n");
-                    writer.write("\t\tif ((featureForceHeaders || " + (annotation.includeHeader()) + ") && !featureSkipHeaders) {\n");
-                    writer.write("\t\t\tBinaryUtils.writeInt(out, " + objId + ");\n");
-                    writer.write("\t\t\tBinaryUtils.writeInt(out, 0);\n"); // reserved for version
-                    writer.write("\t\t}\n"); // reserved for version
-                    writeSerialization(writer, annotation, classElement, false, isRecord);
-                    writer.write("    }\n");
+                    body.write("    public void serialize(CcOutput out, " + className + " obj) throws java.io.IOException {\n");
+                    body.write("\t\tif ((featureForceHeaders || " + (annotation.includeHeader()) + ") && !featureSkipHeaders) {\n");
+                    body.write("\t\t\twriteHeader(out, " + objId + ");\n");
+                    body.write("\t\t}\n");
+                    body.write("\t\tif (featureTrackReferences)\n");
+                    body.write("\t\t\tout.addReference(obj);\n");
+                    writeSerialization(body, annotation, classElement, false, isRecord, nestedSerializers);
+                    body.write("    }\n");
 
                     // Generate deserialization method
-                    writer.write("    public " + className + " deserialize(java.io.InputStream in) throws java.io.IOException {\n");
-                    writer.write("\t\tif ((featureForceHeaders || " + (annotation.includeHeader()) + ") && !featureSkipHeaders) {\n");
-                    writer.write("\t\t\tif (BinaryUtils.readInt(in) != " + objId + ") \n");
-                    writer.write("\t\t\t\tthrow new java.io.IOException(\"Invalid object identifier\"); \n");
-                    writer.write("\t\t\tif (BinaryUtils.readInt(in) != 0)\n"); // version must be 0
-                    writer.write("\t\t\t\tthrow new java.io.IOException(\"Invalid object version\"); \n");
-                    writer.write("\t\t}\n"); // reserved for version
+                    body.write("    public " + className + " deserialize(CcInput in) throws java.io.IOException {\n");
+                    body.write("\t\tif ((featureForceHeaders || " + (annotation.includeHeader()) + ") && !featureSkipHeaders) {\n");
+                    body.write("\t\t\treadHeader(in, " + objId + ");\n");
+                    body.write("\t\t}\n");
                     if (annotation.accessorType() != AccessorType.CONSTRUCTOR) {
-                        writer.write("\t\t" + className + " obj = new " + className + "();\n");
+                        body.write("\t\t" + className + " obj = new " + className + "();\n");
+                        body.write("\t\tif (featureTrackReferences)\n");
+                        body.write("\t\t\tin.addReference(obj);\n");
+                    } else {
+                        // the id is taken before the fields are read, in the order the objects were written
+                        body.write("\t\tint reference = featureTrackReferences ? in.reserveReference() : -1;\n");
                     }
-                    writeSerialization(writer, annotation, classElement, true, isRecord);
+                    writeSerialization(body, annotation, classElement, true, isRecord, nestedSerializers);
                     if (annotation.accessorType() != AccessorType.CONSTRUCTOR) {
-                        writer.write("\t\treturn obj;\n");
+                        body.write("\t\treturn obj;\n");
                     } else {
-                        writer.write("\t\treturn new " + className + "(" + getCtorArgs(annotation, classElement) + ");\n");
+                        body.write("\t\t" + className + " obj = new " + className + "(" + getCtorArgs(annotation, classElement) + ");\n");
+                        body.write("\t\tif (reference >= 0)\n");
+                        body.write("\t\t\tin.setReference(reference, obj);\n");
+                        body.write("\t\treturn obj;\n");
                     }
-                    writer.write("    }\n");
+                    body.write("    }\n");
+
+                    writer.write("public class " + simpleName + " extends AbstractSerializer<"+className+"> {\n");
+                    nestedSerializers.writeFields(writer);
 
+                    // Generate constructors
+                    writer.write("    public " + simpleName + "() {\n");
+                    writer.write("\t\tthis(0);\n");
+                    writer.write("    }\n");
+                    writer.write("    public " + simpleName + "(int features) {\n");
+                    writer.write("\t\tsuper(" + className + ".class, features);\n");
+                    nestedSerializers.writeInitializers(writer);
+                    writer.write("    }\n");
+                    writer.write("    public int getObjectId() {\n");
+                    writer.write("\t\treturn " + objId + ";\n");
+                    writer.write("    }\n");
+                    writer.write(body.toString());
                     writer.write("}\n");
                 }
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
-        if (!properties.isEmpty()) {
-            try {
-                Writer propertiesWriter = filer.createResource(
-                        StandardLocation.CLASS_OUTPUT,
-                        "cerial",
-                        "serializers.properties"
-                ).openWriter();
-                properties.store(propertiesWriter, "Generated by Ccerial Processor");
-                propertiesWriter.close();
+        if (!classesByOid.isEmpty()) {
+            writeRegistry(filer, registryPackage, classesByOid);
+        }
+        if (roundEnv.processingOver() && !registries.isEmpty()) {
+            try (Writer servicesWriter = filer.createResource(StandardLocation.CLASS_OUTPUT, "", REGISTRY_SERVICE).openWriter()) {
+                for (String registry : registries)
+                    servicesWriter.write(registry + "\n");
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -123,6 +172,34 @@ public class CcerialProcessor extends AbstractProcessor {
         return true;
     }
 
+    private void writeRegistry(Filer filer, String packageName, Map<Integer, String> classesByOid) {
+        // named after the classes it registers, so registries of different modules in the same package don't clash
+        String simpleName = "SerializerRegistry_" + Integer.toHexString(
+                ClassIdentifierGenerator.INSTANCE.generateIdentifier(String.join(",", classesByOid.values())));
+        String registryClassName = packageName + "." + simpleName;
+        try (Writer writer = filer.createSourceFile(registryClassName).openWriter()) {
+            writer.write("package " + packageName + ";\n\n");
+            writer.write("public final class " + simpleName + " implements org.gittorr.ccerial.SerializerRegistry {\n");
+            writer.write("    public int[] objectIds() {\n");
+            writer.write("\t\treturn new int[] {" + classesByOid.keySet().stream().map(String::valueOf).collect(Collectors.joining(", ")) + "};\n");
+            writer.write("    }\n");
+            writer.write("    public String[] classNames() {\n");
+            writer.write("\t\treturn new String[] {" + classesByOid.values().stream().map(name -> "\"" + name + "\"").collect(Collectors.joining(", ")) + "};\n");
+            writer.write("    }\n");
+            writer.write("    public Class<?> classFor(int objectId) {\n");
+            writer.write("\t\tswitch (objectId) {\n");
+            for (Map.Entry<Integer, String> entry : classesByOid.entrySet())
+                writer.write("\t\t\tcase " + entry.getKey() + ": return " + entry.getValue() + ".class;\n");
+            writer.write("\t\t\tdefault: return null;\n");
+            writer.write("\t\t}\n");
+            writer.write("    }\n");
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        registries.add(registryClassName);
+    }
+
     private String getCtorArgs(CcSerializable annotation, Element classElement) {
         String properties = annotation.properties();
         List<String> allProperties = Stream.of(properties.split("\\*")).map(String::trim).collect(Collectors.toList());
@@ -135,7 +212,8 @@ public class CcerialProcessor extends AbstractProcessor {
         return allProperties.stream().map(fieldName -> "arg" + fieldName.substring(0,1).toUpperCase() + fieldName.substring(1)).reduce((a,b) -> a + ", " + b).orElse("");
     }
 
-    private void writeSerialization(Writer writer, CcSerializable annotation, Element classElement, boolean deserialize, boolean isRecord) {
+    private void writeSerialization(Writer writer, CcSerializable annotation, Element classElement, boolean deserialize, boolean isRecord,
+                                    NestedSerializers nestedSerializers) {
         String properties = annotation.properties();
         List<String> allProperties = Stream.of(properties.split("\\*")).map(String::trim).collect(Collectors.toList());
         Map<String, ? extends Element> fields = classElement.getEnclosedElements().stream().filter(field -> field.getKind().equals(ElementKind.FIELD)
@@ -148,12 +226,59 @@ public class CcerialProcessor extends AbstractProcessor {
         }
         if (allProperties.isEmpty())
             throw new IllegalStateException("No properties to serialize at " + classElement.getSimpleName());
-        allProperties.forEach(fieldName ->
-            writeField(writer, fields, methods, fieldName, annotation, deserialize, isRecord, classElement));
+        List<String> flags = allProperties.stream().filter(fieldName -> fields.get(fieldName).asType().getKind() == TypeKind.BOOLEAN)
+                .collect(Collectors.toList());
+        if (flags.size() < 2)
+            flags = List.of();
+        List<String> nullable = !annotation.presenceBitmap() ? List.<String>of() :
+                allProperties.stream().filter(fieldName -> !fields.get(fieldName).asType().getKind().isPrimitive())
+                .collect(Collectors.toList());
+        try {
+            writeBitmap(writer, "presence", nullable, fields, methods, annotation, deserialize, isRecord);
+            for (String fieldName : allProperties) {
+                int flag = flags.indexOf(fieldName);
+                if (flag == 0)
+                    writeBitmap(writer, "flags", flags, fields, methods, annotation, deserialize, isRecord);
+                if (flag >= 0 && !deserialize)
+                    continue;
+                int bit = nullable.indexOf(fieldName);
+                String presenceBit = bit < 0 ? null : bitOf("presence", bit);
+                String flagBit = flag < 0 ? null : bitOf("flags", flag);
+                writeField(writer, fields, methods, fieldName, annotation, deserialize, isRecord, classElement, nestedSerializers, presenceBit, flagBit);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String bitOf(String bitmap, int bit) {
+        return bitmap + (bit >>> 6) + " & " + (1L << (bit & 63)) + "L";
+    }
+
+    // one long per group of 64 fields, for the presence bitmap a bit set for each field that isn't null,
+    // for the flags a bit set for each boolean field that is true
+    private void writeBitmap(Writer writer, String bitmap, List<String> fieldNames, Map<String, ? extends Element> fields, Map<String, ? extends Element> methods,
+                             CcSerializable annotation, boolean deserialize, boolean isRecord) throws IOException {
+        for (int group = 0; group * 64 < fieldNames.size(); group++) {
+            int bytes = (Math.min(64, fieldNames.size() - group * 64) + 7) >>> 3;
+            if (deserialize) {
+                writer.write("\t\tlong " + bitmap + group + " = BinaryUtils.readBitmap(in, " + bytes + ");\n");
+                continue;
+            }
+            writer.write("\t\tlong " + bitmap + group + " = 0L;\n");
+            for (int bit = group * 64; bit < fieldNames.size() && bit < group * 64 + 64; bit++) {
+                String fieldName = fieldNames.get(bit);
+                String accessorGetter = getAccessorGetter(fieldName, fields.get(fieldName), annotation.accessorType(), methods, isRecord);
+                String condition = bitmap.equals("flags") ? "obj." + accessorGetter : "obj." + accessorGetter + " != null";
+                writer.write("\t\tif (" + condition + ") " + bitmap + group + " |= " + (1L << (bit & 63)) + "L;\n");
+            }
+            writer.write("\t\tBinaryUtils.writeBitmap(out, " + bitmap + group + ", " + bytes + ");\n");
+        }
     }
 
     private void writeField(Writer writer, Map<String, ? extends Element> fields, Map<String, ? extends Element> methods,
-                            String fieldName, CcSerializable annotation, boolean deserialize, boolean isRecord, Element classElement) {
+                            String fieldName, CcSerializable annotation, boolean deserialize, boolean isRecord, Element classElement,
+                            NestedSerializers nestedSerializers, String presenceBit, String flagBit) {
         Element fieldEl = fields.get(fieldName);
         AccessorType accessorType = annotation.accessorType();
         boolean variableSize = annotation.variableSize();
@@ -174,10 +299,29 @@ public class CcerialProcessor extends AbstractProcessor {
             if (fieldAccessorWriter == null) {
                 throw new IllegalStateException("Can't find a field accessor writer for type " + fieldEl.asType() + " and variableSize=" + variableSize);
             }
+            if (flagBit != null) {
+                // only read, the value was written with the flags
+                fieldAccessorWriter.writeReader(writer, accessorGetter, fieldEl, annotation, isRecord, classElement, nestedSerializers, null, "((" + flagBit + ") != 0)");
+                return;
+            }
+            if (presenceBit == null) {
+                if (deserialize)
+                    fieldAccessorWriter.writeReader(writer, accessorGetter, fieldEl, annotation, isRecord, classElement, nestedSerializers);
+                else
+                    fieldAccessorWriter.writeWriter(writer, accessorGetter, fieldEl, annotation, isRecord, classElement, nestedSerializers);
+                return;
+            }
+            if (deserialize && accessorType == AccessorType.CONSTRUCTOR) {
+                // the argument stays in scope for the constructor call, the template makes it null when absent
+                fieldAccessorWriter.writeReader(writer, accessorGetter, fieldEl, annotation, isRecord, classElement, nestedSerializers, presenceBit, null);
+                return;
+            }
+            writer.write("\t\tif ((" + presenceBit + ") != 0) {\n");
             if (deserialize)
-                fieldAccessorWriter.writeReader(writer, accessorGetter, fieldEl, annotation, isRecord, classElement);
+                fieldAccessorWriter.writeReader(writer, accessorGetter, fieldEl, annotation, isRecord, classElement, nestedSerializers);
             else
-                fieldAccessorWriter.writeWriter(writer, accessorGetter, fieldEl, annotation, isRecord, classElement);
+                fieldAccessorWriter.writeWriter(writer, accessorGetter, fieldEl, annotation, isRecord, classElement, nestedSerializers);
+            writer.write("\t\t}\n");
         } catch(IOException e) {
             throw new RuntimeException(e);
         }
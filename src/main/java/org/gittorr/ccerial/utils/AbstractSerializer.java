@@ -1,60 +1,71 @@
 package org.gittorr.ccerial.utils;
 
+import org.gittorr.ccerial.Ccerial;
 import org.gittorr.ccerial.Serializer;
 import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.io.CcInput;
+import org.gittorr.ccerial.io.CcOutput;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.Writer;
 import java.util.Collection;
 import java.util.Map;
 import java.util.function.Function;
 
 public abstract class AbstractSerializer<E> implements Serializer<E> {
 
-    protected boolean featureForceHeaders = false;
-    protected boolean featureSkipHeaders = false;
-    protected boolean featureForceVariableSize = false;
-    protected boolean featureForceZeroOrEmptyAsNull = false;
+    private final Class<E> type;
+    private final int features;
+    protected final boolean featureForceHeaders;
+    protected final boolean featureSkipHeaders;
+    protected final boolean featureForceVariableSize;
+    protected final boolean featureForceZeroOrEmptyAsNull;
+    protected final boolean featureZigZagVarInts;
+    protected final boolean featureRunLengthArrays;
+    protected final boolean featureStringDictionary;
+    protected final boolean featureClassDictionary;
+    protected final boolean featureTrackReferences;
+
+    protected AbstractSerializer(Class<E> type, int features) {
+        this.type = type;
+        this.features = features;
+        this.featureForceHeaders = (features & SerializerFeature.FORCE_HEADERS.mask()) != 0;
+        this.featureSkipHeaders = (features & SerializerFeature.SKIP_HEADERS.mask()) != 0;
+        this.featureForceVariableSize = (features & SerializerFeature.FORCE_VARIABLE_SIZE.mask()) != 0;
+        this.featureForceZeroOrEmptyAsNull = (features & SerializerFeature.FORCE_ZERO_OR_EMPTY_AS_NULL.mask()) != 0;
+        this.featureZigZagVarInts = (features & SerializerFeature.ZIGZAG_VARINTS.mask()) != 0;
+        this.featureRunLengthArrays = (features & SerializerFeature.RUN_LENGTH_ARRAYS.mask()) != 0;
+        this.featureStringDictionary = (features & SerializerFeature.STRING_DICTIONARY.mask()) != 0;
+        this.featureClassDictionary = (features & SerializerFeature.CLASS_DICTIONARY.mask()) != 0;
+        this.featureTrackReferences = (features & SerializerFeature.TRACK_REFERENCES.mask()) != 0;
+        if (featureForceHeaders && featureSkipHeaders)
+            throw new IllegalArgumentException("Conflicting features FORCE_HEADERS and SKIP_HEADERS.");
+    }
+
+    /**
+     * @return the class handled by this serializer
+     */
+    public Class<E> getType() {
+        return type;
+    }
+
+    /**
+     * @return the identifier of the class handled by this serializer, written in its headers
+     */
+    public abstract int getObjectId();
 
     @Override
-    public void setFeatureEnabled(SerializerFeature feature, boolean enabled) {
-        switch (feature) {
-            case FORCE_HEADERS:
-                if (featureSkipHeaders)
-                    throw new IllegalStateException("Conflicting features FORCE_HEADERS and SKIP_HEADERS.");
-                featureForceHeaders = enabled;
-                break;
-            case SKIP_HEADERS:
-                if (featureForceHeaders)
-                    throw new IllegalStateException("Conflicting features FORCE_HEADERS and SKIP_HEADERS.");
-                featureSkipHeaders = enabled;
-                break;
-            case FORCE_VARIABLE_SIZE:
-                featureForceVariableSize = enabled;
-                break;
-            case FORCE_ZERO_OR_EMPTY_AS_NULL:
-                featureForceZeroOrEmptyAsNull = enabled;
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown feature: " + feature);
-        }
+    public int getFeatures() {
+        return features;
+    }
+
+    @Override
+    public Serializer<E> withFeatures(SerializerFeature... features) {
+        return Ccerial.getSerializer(type, SerializerFeature.maskOf(features));
     }
 
     @Override
     public boolean isFeatureEnabled(SerializerFeature feature) {
-        switch (feature) {
-            case FORCE_HEADERS:
-                return featureForceHeaders;
-            case SKIP_HEADERS:
-                return featureSkipHeaders;
-            case FORCE_VARIABLE_SIZE:
-                return featureForceVariableSize;
-            case FORCE_ZERO_OR_EMPTY_AS_NULL:
-                return featureForceZeroOrEmptyAsNull;
-            default:
-                throw new IllegalArgumentException("Unknown feature: " + feature);
-        }
+        return (features & feature.mask()) != 0;
     }
 
     protected byte[] nullIfEmptyOrZero(byte[] ar, boolean defaultBehavior) {
@@ -81,6 +92,12 @@ public abstract class AbstractSerializer<E> implements Serializer<E> {
         return ar;
     }
 
+    protected boolean[] nullIfEmptyOrZero(boolean[] ar, boolean defaultBehavior) {
+        if (featureForceZeroOrEmptyAsNull || defaultBehavior)
+            return BinaryUtils.isNullOrEmpty(ar) ? null : ar;
+        return ar;
+    }
+
     protected long[] nullIfEmptyOrZero(long[] ar, boolean defaultBehavior) {
         if (featureForceZeroOrEmptyAsNull || defaultBehavior)
             return BinaryUtils.isNullOrEmpty(ar) ? null : ar;
@@ -159,18 +176,102 @@ public abstract class AbstractSerializer<E> implements Serializer<E> {
         return v.isEmpty() && (featureForceZeroOrEmptyAsNull || defaultBehavior) ? null : enumValueOf.apply(v);
     }
 
-    protected <V> void writeWithFeature(WriterFunction<V> variableWriter, WriterFunction<V> normalWriter, OutputStream out, V value) throws IOException {
+    protected <V> void writeWithFeature(WriterFunction<V> variableWriter, WriterFunction<V> normalWriter, CcOutput out, V value) throws IOException {
         if (featureForceVariableSize)
             variableWriter.write(out, value);
         else
             normalWriter.write(out, value);
     }
 
-    protected <V> void writeWithFeature(WriterFunctionSized<V> variableWriter, WriterFunctionSized<V> normalWriter, OutputStream out, V value, int count) throws IOException {
+    protected <V> void writeWithFeature(WriterFunctionSized<V> variableWriter, WriterFunctionSized<V> normalWriter, CcOutput out, V value, int count) throws IOException {
         if (featureForceVariableSize)
             variableWriter.write(out, value, -1);
         else
             normalWriter.write(out, value, count);
     }
 
+    protected void writeVarInt(CcOutput out, Integer i) throws IOException {
+        writeVarInt(out, i == null ? 0 : i);
+    }
+
+    protected void writeVarInt(CcOutput out, int i) throws IOException {
+        if (featureZigZagVarInts)
+            BinaryUtils.writeZigZagVarInt(out, i);
+        else
+            BinaryUtils.writeVarInt(out, i);
+    }
+
+    protected int readVarInt(CcInput in) throws IOException {
+        return featureZigZagVarInts ? BinaryUtils.readZigZagVarInt(in) : BinaryUtils.readVarInt(in);
+    }
+
+    protected void writeVarLong(CcOutput out, Long l) throws IOException {
+        writeVarLong(out, l == null ? 0L : l);
+    }
+
+    protected void writeVarLong(CcOutput out, long l) throws IOException {
+        if (featureZigZagVarInts)
+            BinaryUtils.writeZigZagVarLong(out, l);
+        else
+            BinaryUtils.writeVarLong(out, l);
+    }
+
+    protected long readVarLong(CcInput in) throws IOException {
+        return featureZigZagVarInts ? BinaryUtils.readZigZagVarLong(in) : BinaryUtils.readVarLong(in);
+    }
+
+    protected void writeVarInts(CcOutput out, int[] is, int count) throws IOException {
+        if (featureZigZagVarInts)
+            BinaryUtils.writeZigZagVarInts(out, is, count);
+        else
+            BinaryUtils.writeVarInts(out, is, count);
+    }
+
+    protected int[] readVarInts(CcInput in, int count) throws IOException {
+        return featureZigZagVarInts ? BinaryUtils.readZigZagVarInts(in, count) : BinaryUtils.readVarInts(in, count);
+    }
+
+    protected void writeVarLongs(CcOutput out, long[] ls, int count) throws IOException {
+        if (featureZigZagVarInts)
+            BinaryUtils.writeZigZagVarLongs(out, ls, count);
+        else
+            BinaryUtils.writeVarLongs(out, ls, count);
+    }
+
+    protected long[] readVarLongs(CcInput in, int count) throws IOException {
+        return featureZigZagVarInts ? BinaryUtils.readZigZagVarLongs(in, count) : BinaryUtils.readVarLongs(in, count);
+    }
+
+    protected void writeString(CcOutput out, String s, int count, String charsetName) throws IOException {
+        if (featureStringDictionary && count == -1)
+            BinaryUtils.writeDictionaryString(out, s, charsetName);
+        else
+            BinaryUtils.writeString(out, s, count, charsetName);
+    }
+
+    protected String readString(CcInput in, int count, String charsetName) throws IOException {
+        return featureStringDictionary && count == -1 ? BinaryUtils.readDictionaryString(in, charsetName) : BinaryUtils.readString(in, count, charsetName);
+    }
+
+    protected void writeHeader(CcOutput out, int objectId) throws IOException {
+        if (featureClassDictionary) {
+            out.writeClassId(objectId);
+            return;
+        }
+        BinaryUtils.writeInt(out, objectId);
+        BinaryUtils.writeInt(out, 0); // reserved for version
+    }
+
+    protected void readHeader(CcInput in, int objectId) throws IOException {
+        if (featureClassDictionary) {
+            if (in.readClassId() != objectId)
+                throw new IOException("Invalid object identifier");
+            return;
+        }
+        if (BinaryUtils.readInt(in) != objectId)
+            throw new IOException("Invalid object identifier");
+        if (BinaryUtils.readInt(in) != 0)
+            throw new IOException("Invalid object version");
+    }
+
 }
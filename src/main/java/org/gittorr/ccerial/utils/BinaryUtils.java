@@ -20,19 +20,39 @@ package org.gittorr.ccerial.utils;
 import org.gittorr.ccerial.Ccerial;
 import org.gittorr.ccerial.Serializer;
 import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.io.CcInput;
+import org.gittorr.ccerial.io.CcOutput;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 /**
  * Binary utilities class.
  */
 public final class BinaryUtils {
 
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    // data bytes of a group of four ints, for each control byte
+    private static final byte[] INT_GROUP_LENGTHS = new byte[256];
+    // data bytes of a pair of longs, for each control byte
+    private static final byte[] LONG_GROUP_LENGTHS = new byte[256];
+    private static final int[] INT_MASKS = {0, 0xFF, 0xFFFF, 0xFFFFFF, -1};
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            INT_GROUP_LENGTHS[c] = (byte) ((c & 3) + (c >>> 2 & 3) + (c >>> 4 & 3) + (c >>> 6 & 3) + 4);
+            LONG_GROUP_LENGTHS[c] = (byte) ((c & 7) + (c >>> 4 & 7) + 2);
+        }
+    }
+
     public static Integer zeroIfNull(Integer i) {
         return i == null ? 0 : i;
     }
@@ -73,6 +93,10 @@ public final class BinaryUtils {
         return ar == null || ar.length == 0;
     }
 
+    public static boolean isNullOrEmpty(boolean[] ar) {
+        return ar == null || ar.length == 0;
+    }
+
     public static boolean isNullOrEmpty(long[] ar) {
         return ar == null || ar.length == 0;
     }
@@ -116,7 +140,7 @@ public final class BinaryUtils {
         return (value == null) ? defaultValue : value;
     }
 
-    public static <K, V> void writeMap(OutputStream out, Map<K, V> map, int count, WriterFunction<K> keyWriter, WriterFunction<V> valueWriter) throws IOException {
+    public static <K, V> void writeMap(CcOutput out, Map<K, V> map, int count, WriterFunction<K> keyWriter, WriterFunction<V> valueWriter) throws IOException {
         int size = map != null ? map.size() : 0;
         if (count == -1) {
             writeVarInt(out, size);
@@ -135,7 +159,7 @@ public final class BinaryUtils {
         }
     }
 
-    public static <K, V> Map<K, V> readMap(InputStream in, int count, ReaderFunction<K> keyReader, ReaderFunction<V> valueReader, Function<Integer, Map<K,V>> creator) throws IOException {
+    public static <K, V> Map<K, V> readMap(CcInput in, int count, ReaderFunction<K> keyReader, ReaderFunction<V> valueReader, Function<Integer, Map<K,V>> creator) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
@@ -146,7 +170,7 @@ public final class BinaryUtils {
         return map;
     }
 
-    public static <T> void writeCollection(OutputStream out, Collection<T> ar, int count, WriterFunction<T> componentWriter) throws IOException {
+    public static <T> void writeCollection(CcOutput out, Collection<T> ar, int count, WriterFunction<T> componentWriter) throws IOException {
         int size = ar != null ? ar.size() : 0;
         if (count == -1) {
             writeVarInt(out, size);
@@ -158,7 +182,7 @@ public final class BinaryUtils {
         }
     }
 
-    public static <T> Collection readCollection(InputStream in, int count, ReaderFunction<T> componentReader, Function<Integer, Collection<T>> creator) throws IOException {
+    public static <T> Collection readCollection(CcInput in, int count, ReaderFunction<T> componentReader, Function<Integer, Collection<T>> creator) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
@@ -169,7 +193,7 @@ public final class BinaryUtils {
         return ar;
     }
 
-    public static <T> void writeGenericArray(OutputStream out, T[] ar, int count, WriterFunction<T> componentWriter) throws IOException {
+    public static <T> void writeGenericArray(CcOutput out, T[] ar, int count, WriterFunction<T> componentWriter) throws IOException {
         int length = ar != null ? ar.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
@@ -180,7 +204,7 @@ public final class BinaryUtils {
         }
     }
 
-    public static <T> T[] readGenericArray(InputStream in, int count, ReaderFunction<T> componentReader, Function<Integer, T[]> creator) throws IOException {
+    public static <T> T[] readGenericArray(CcInput in, int count, ReaderFunction<T> componentReader, Function<Integer, T[]> creator) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
@@ -191,59 +215,146 @@ public final class BinaryUtils {
         return ar;
     }
 
-    public static <U, V> void writeObject(OutputStream out, V obj, Class<V> type, Serializer<U> father) throws IOException {
+    public static <U, V> void writeObject(CcOutput out, V obj, Class<V> type, Serializer<U> father) throws IOException {
+        int features = father != null ? father.getFeatures() : 0;
+        if ((features & SerializerFeature.TRACK_REFERENCES.mask()) != 0 && writeReference(out, obj))
+            return;
         if (obj == null) {
-            out.write(0);
+            if (type != null)
+                throw nullWithoutMarker(type);
+            // without a type the null marker takes the place of the header, as a class id of 0
+            if ((features & SerializerFeature.CLASS_DICTIONARY.mask()) == 0)
+                writeInt(out, 0);
+            else
+                out.writeByte(0);
         } else {
             @SuppressWarnings({"unchecked"})
             Class<V> c = type != null ? type : (Class<V>) obj.getClass();
-            Serializer<V> serializer = Ccerial.getSerializer(c);
-            if (father != null)
-                copyFeatures(father, serializer);
             if (type == null)
-                serializer.setFeatureEnabled(SerializerFeature.FORCE_HEADERS, true);
-            serializer.serialize(out, obj);
-        }
-    }
-
-    public static <T, U> T readObject(InputStream in, Class<T> type, Serializer<U> father) throws IOException {
-        Serializer<T> serializer;
-        if (type == null) {
-            BufferedInputStream bis = new BufferedInputStream(in);
-            bis.mark(8);
-            int oid = readInt(bis);
-            int version = readInt(bis);
-            if (version != 0) throw new IllegalStateException("Versioning is not yet supported!");
-            bis.reset();
-            in = bis;
-            serializer = Ccerial.getSerializer(oid);
-            if (father != null)
-                copyFeatures(father, serializer);
-            serializer.setFeatureEnabled(SerializerFeature.FORCE_HEADERS, true);
-        } else {
-            serializer = Ccerial.getSerializer(type);
-            if (father != null)
-                copyFeatures(father, serializer);
+                features = withHeaders(features);
+            Ccerial.getSerializer(c, features).serialize(out, obj);
+        }
+    }
+
+    /**
+     * Returns the features of the serializers of dynamically typed values, which always write their header
+     * whatever the enclosing serializer does with its own.
+     *
+     * @param features the features of the enclosing serializer
+     * @return the features with {@code FORCE_HEADERS} and without {@code SKIP_HEADERS}
+     */
+    public static int withHeaders(int features) {
+        return (features & ~SerializerFeature.SKIP_HEADERS.mask()) | SerializerFeature.FORCE_HEADERS.mask();
+    }
+
+    public static <V> void writeObject(CcOutput out, V obj, Serializer<V> serializer) throws IOException {
+        if ((serializer.getFeatures() & SerializerFeature.TRACK_REFERENCES.mask()) != 0 && writeReference(out, obj))
+            return;
+        if (obj == null)
+            throw nullWithoutMarker(serializer instanceof AbstractSerializer ? ((AbstractSerializer<?>) serializer).getType() : null);
+        serializer.serialize(out, obj);
+    }
+
+    // a value of a known class is written without any marker, so null can only be told apart with references
+    private static IllegalArgumentException nullWithoutMarker(Class<?> type) {
+        return new IllegalArgumentException("Null " + (type != null ? type.getName() : "value")
+                + " can't be written without TRACK_REFERENCES, a presence bitmap or a dynamic type");
+    }
+
+    // with tracked references an object starts with a tag, 0 for null, 1 for an object written next,
+    // or the id of an object already written plus 2; returns true when there's nothing more to write
+    private static boolean writeReference(CcOutput out, Object obj) throws IOException {
+        if (obj == null) {
+            out.writeVarInt(0);
+            return true;
+        }
+        int id = out.referenceOf(obj);
+        if (id >= 0) {
+            out.writeVarInt(id + 2);
+            return true;
+        }
+        out.writeVarInt(1);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T readReference(CcInput in, int tag) throws IOException {
+        return tag == 0 ? null : (T) in.reference(tag - 2);
+    }
+
+    public static <T> T readObject(CcInput in, Serializer<T> serializer) throws IOException {
+        if ((serializer.getFeatures() & SerializerFeature.TRACK_REFERENCES.mask()) != 0) {
+            int tag = in.readVarInt();
+            if (tag != 1)
+                return readReference(in, tag);
         }
         return serializer.deserialize(in);
     }
 
-    private static <T, U> void copyFeatures(Serializer<U> father, Serializer<T> serializer) {
-        Stream.of(SerializerFeature.values()).forEach(feature -> serializer.setFeatureEnabled(feature, father.isFeatureEnabled(feature)));
+    public static <T, U> T readObject(CcInput in, Class<T> type, Serializer<U> father) throws IOException {
+        int features = father != null ? father.getFeatures() : 0;
+        if ((features & SerializerFeature.TRACK_REFERENCES.mask()) != 0) {
+            int tag = in.readVarInt();
+            if (tag != 1)
+                return readReference(in, tag);
+        }
+        if (type == null)
+            return readByHeader(in, null, features);
+        return Ccerial.getSerializer(type, features).deserialize(in);
+    }
+
+    // a dynamically typed value whose declared class has a linked serializer, used for the values of that exact
+    // class, the other ones are resolved at runtime from their class, and written with the same header
+    public static <V, U> void writeDynamicObject(CcOutput out, V obj, AbstractSerializer<V> serializer, Serializer<U> father) throws IOException {
+        if (obj == null || obj.getClass() != serializer.getType()) {
+            writeObject(out, obj, (Class<V>) null, father);
+            return;
+        }
+        if ((serializer.getFeatures() & SerializerFeature.TRACK_REFERENCES.mask()) != 0 && writeReference(out, obj))
+            return;
+        serializer.serialize(out, obj);
+    }
+
+    public static <T, U> T readDynamicObject(CcInput in, AbstractSerializer<T> serializer, Serializer<U> father) throws IOException {
+        int features = father != null ? father.getFeatures() : 0;
+        if ((features & SerializerFeature.TRACK_REFERENCES.mask()) != 0) {
+            int tag = in.readVarInt();
+            if (tag != 1)
+                return readReference(in, tag);
+        }
+        return readByHeader(in, serializer, features);
+    }
+
+    // the header is left in place, the serializer reads and checks it
+    private static <T> T readByHeader(CcInput in, AbstractSerializer<T> linked, int features) throws IOException {
+        boolean dictionary = (features & SerializerFeature.CLASS_DICTIONARY.mask()) != 0;
+        int oid = dictionary ? in.peekClassId() : in.peekInt();
+        if (oid == 0) {
+            // the marker written for null
+            if (dictionary)
+                in.readClassId();
+            else
+                in.skipFully(4);
+            return null;
+        }
+        Serializer<T> serializer = linked != null && oid == linked.getObjectId() ? linked : Ccerial.getSerializer(oid, withHeaders(features));
+        return serializer.deserialize(in);
     }
 
-    public static void writeFloats(OutputStream out, float[] fs, int count) throws IOException {
+    public static void writeFloats(CcOutput out, float[] fs, int count) throws IOException {
         int length = fs != null ? fs.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
             count = length;
         }
-        for (int i = 0; i < count; i++) {
-            writeFloat(out, fs != null && i < length ? fs[i] : 0);
-        }
+        int n = Math.min(count, length);
+        if (n > 0)
+            out.writeFloats(fs, 0, n);
+        if (count > n)
+            out.writeZeros((count - n) * 4);
     }
 
-    public static void writeVarFloats(OutputStream out, float[] fs, int count) throws IOException {
+    public static void writeVarFloats(CcOutput out, float[] fs, int count) throws IOException {
         int length = fs != null ? fs.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
@@ -254,18 +365,16 @@ public final class BinaryUtils {
         }
     }
 
-    public static float[] readFloats(InputStream in, int count) throws IOException {
+    public static float[] readFloats(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
         float[] fs = new float[count];
-        for (int i = 0; i < count; i++) {
-            fs[i] = readFloat(in);
-        }
+        in.readFloats(fs, 0, count);
         return fs;
     }
 
-    public static float[] readVarFloats(InputStream in, int count) throws IOException {
+    public static float[] readVarFloats(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
@@ -276,18 +385,20 @@ public final class BinaryUtils {
         return fs;
     }
 
-    public static void writeDoubles(OutputStream out, double[] ds, int count) throws IOException {
+    public static void writeDoubles(CcOutput out, double[] ds, int count) throws IOException {
         int length = ds != null ? ds.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
             count = length;
         }
-        for (int i = 0; i < count; i++) {
-            writeDouble(out, ds != null && i < ds.length ? ds[i] : 0d);
-        }
+        int n = Math.min(count, length);
+        if (n > 0)
+            out.writeDoubles(ds, 0, n);
+        if (count > n)
+            out.writeZeros((count - n) * 8);
     }
 
-    public static void writeVarDoubles(OutputStream out, double[] ds, int count) throws IOException {
+    public static void writeVarDoubles(CcOutput out, double[] ds, int count) throws IOException {
         int length = ds != null ? ds.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
@@ -298,18 +409,16 @@ public final class BinaryUtils {
         }
     }
 
-    public static double[] readDoubles(InputStream in, int count) throws IOException {
+    public static double[] readDoubles(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
         double[] ds = new double[count];
-        for (int i = 0; i < count; i++) {
-            ds[i] = readDouble(in);
-        }
+        in.readDoubles(ds, 0, count);
         return ds;
     }
 
-    public static double[] readVarDoubles(InputStream in, int count) throws IOException {
+    public static double[] readVarDoubles(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
@@ -320,32 +429,92 @@ public final class BinaryUtils {
         return ds;
     }
 
-    public static void writeChars(OutputStream out, char[] chars, int count) throws IOException {
+    public static void writeChars(CcOutput out, char[] chars, int count) throws IOException {
         int length = chars != null ? chars.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
             count = length;
         }
-        for (int i = 0; i < count; i++) {
-            if (chars != null && i < length)
-                writeChar(out, chars[i]);
-            else
-                writeChar(out, (char) 0);
+        int n = Math.min(count, length);
+        if (n > 0)
+            out.writeChars(chars, 0, n);
+        if (count > n)
+            out.writeZeros((count - n) * 2);
+    }
+
+    public static char[] readChars(CcInput in, int count) throws IOException {
+        if (count == -1) {
+            count = readVarInt(in);
+        }
+        char[] chars = new char[count];
+        in.readChars(chars, 0, count);
+        return chars;
+    }
+
+    public static void writeShorts(CcOutput out, short[] ss, int count) throws IOException {
+        int length = ss != null ? ss.length : 0;
+        if (count == -1) {
+            writeVarInt(out, length);
+            count = length;
+        }
+        int n = Math.min(count, length);
+        if (n > 0)
+            out.writeShorts(ss, 0, n);
+        if (count > n)
+            out.writeZeros((count - n) * 2);
+    }
+
+    public static short[] readShorts(CcInput in, int count) throws IOException {
+        if (count == -1) {
+            count = readVarInt(in);
+        }
+        short[] ss = new short[count];
+        in.readShorts(ss, 0, count);
+        return ss;
+    }
+
+    // packs the values as a bitset, 8 per byte, least significant bit first
+    public static void writeBooleans(CcOutput out, boolean[] bs, int count) throws IOException {
+        int length = bs != null ? bs.length : 0;
+        if (count == -1) {
+            writeVarInt(out, length);
+            count = length;
+        }
+        int n = Math.min(count, length);
+        byte[] bits = new byte[(count + 7) >>> 3];
+        for (int i = 0; i < n; i++) {
+            if (bs[i])
+                bits[i >>> 3] |= (byte) (1 << (i & 7));
         }
+        out.writeBytes(bits, 0, bits.length);
     }
 
-    public static char[] readChars(InputStream in, int count) throws IOException {
+    public static boolean[] readBooleans(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
-        char[] chs = new char[count];
-        for ( int i = 0; i < count; i++) {
-            chs[i] = readChar(in);
+        byte[] bits = new byte[(count + 7) >>> 3];
+        in.readFully(bits, 0, bits.length);
+        boolean[] bs = new boolean[count];
+        for (int i = 0; i < count; i++)
+            bs[i] = (bits[i >>> 3] & (1 << (i & 7))) != 0;
+        return bs;
+    }
+
+    public static void writeInts(CcOutput out, int[] is, int count) throws IOException {
+        int length = is != null ? is.length : 0;
+        if (count == -1) {
+            writeVarInt(out, length);
+            count = length;
         }
-        return chs;
+        int n = Math.min(count, length);
+        if (n > 0)
+            out.writeInts(is, 0, n);
+        if (count > n)
+            out.writeZeros((count - n) * 4);
     }
 
-    public static void writeInts(OutputStream out, int[] is, int count) throws IOException {
+    public static void writeVarInts(CcOutput out, int[] is, int count) throws IOException {
         int length = is != null ? is.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
@@ -353,13 +522,31 @@ public final class BinaryUtils {
         }
         for (int i = 0; i < count; i++) {
             if (is != null && i < length)
-                writeInt(out, is[i]);
+                writeVarInt(out, is[i]);
             else
-                writeInt(out, 0);
+                writeVarInt(out, 0);
+        }
+    }
+
+    public static int[] readInts(CcInput in, int count) throws IOException {
+        if (count == -1) {
+            count = readVarInt(in);
+        }
+        int[] is = new int[count];
+        in.readInts(is, 0, count);
+        return is;
+    }
+
+    public static int[] readVarInts(CcInput in, int count) throws IOException {
+        if (count == -1) {
+            count = readVarInt(in);
         }
+        int[] is = new int[count];
+        in.readVarInts(is, 0, count);
+        return is;
     }
 
-    public static void writeVarInts(OutputStream out, int[] is, int count) throws IOException {
+    public static void writeZigZagVarInts(CcOutput out, int[] is, int count) throws IOException {
         int length = is != null ? is.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
@@ -367,49 +554,592 @@ public final class BinaryUtils {
         }
         for (int i = 0; i < count; i++) {
             if (is != null && i < length)
-                writeVarInt(out, is[i]);
+                writeZigZagVarInt(out, is[i]);
             else
-                writeVarInt(out, 0);
+                writeZigZagVarInt(out, 0);
         }
     }
 
-    public static int[] readInts(InputStream in, int count) throws IOException {
+    public static int[] readZigZagVarInts(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
         int[] is = new int[count];
+        in.readVarInts(is, 0, count);
         for (int i = 0; i < count; i++) {
-            is[i] = readInt(in);
+            int n = is[i];
+            is[i] = (n >>> 1) ^ -(n & 1);
         }
         return is;
     }
 
-    public static int[] readVarInts(InputStream in, int count) throws IOException {
+    private static int byteLength(int value) {
+        return 4 - (Integer.numberOfLeadingZeros(value | 1) >>> 3);
+    }
+
+    private static int byteLength(long value) {
+        return 8 - (Long.numberOfLeadingZeros(value | 1) >>> 3);
+    }
+
+    private static int writeCount(CcOutput out, int length, int count) throws IOException {
         if (count == -1) {
-            count = readVarInt(in);
+            writeVarInt(out, length);
+            return length;
         }
+        return count;
+    }
+
+    private static int readCount(CcInput in, int count) throws IOException {
+        return count == -1 ? readVarInt(in) : count;
+    }
+
+    // encodes the values as control bytes, each followed by its group (interleaved) or all followed by the data
+    private static int encodeGroups(int[] is, int length, int count, byte[] dst, boolean interleaved) {
+        int controls = (count + 3) >>> 2;
+        int c = 0;
+        int p = interleaved ? 1 : controls;
+        for (int g = 0; g < count; g += 4) {
+            int control = 0;
+            for (int k = 0; k < 4 && g + k < count; k++) {
+                int value = g + k < length ? is[g + k] : 0;
+                int n = byteLength(value);
+                INT.set(dst, p, value);
+                p += n;
+                control |= (n - 1) << (k << 1);
+            }
+            dst[c] = (byte) control;
+            c = interleaved ? p++ : c + 1;
+        }
+        return interleaved ? p - 1 : p;
+    }
+
+    private static int encodeGroups(long[] ls, int length, int count, byte[] dst, boolean interleaved) {
+        int controls = (count + 1) >>> 1;
+        int c = 0;
+        int p = interleaved ? 1 : controls;
+        for (int g = 0; g < count; g += 2) {
+            int control = 0;
+            for (int k = 0; k < 2 && g + k < count; k++) {
+                long value = g + k < length ? ls[g + k] : 0L;
+                int n = byteLength(value);
+                LONG.set(dst, p, value);
+                p += n;
+                control |= (n - 1) << (k << 2);
+            }
+            dst[c] = (byte) control;
+            c = interleaved ? p++ : c + 1;
+        }
+        return interleaved ? p - 1 : p;
+    }
+
+    // decodes count values, c is the first control byte and p the first data byte when not interleaved
+    private static void decodeGroups(byte[] src, int c, int p, boolean interleaved, int[] is, int count) {
+        for (int g = 0; g < count; g += 4) {
+            int control = src[c] & 0xFF;
+            if (interleaved)
+                p = c + 1;
+            for (int k = 0; k < 4 && g + k < count; k++) {
+                int n = (control >>> (k << 1) & 3) + 1;
+                is[g + k] = (int) INT.get(src, p) & INT_MASKS[n];
+                p += n;
+            }
+            c = interleaved ? p : c + 1;
+        }
+    }
+
+    private static void decodeGroups(byte[] src, int c, int p, boolean interleaved, long[] ls, int count) {
+        for (int g = 0; g < count; g += 2) {
+            int control = src[c] & 0xFF;
+            if (interleaved)
+                p = c + 1;
+            for (int k = 0; k < 2 && g + k < count; k++) {
+                int n = (control >>> (k << 2) & 7) + 1;
+                long value = (long) LONG.get(src, p);
+                ls[g + k] = n == 8 ? value : value & ((1L << (n << 3)) - 1);
+                p += n;
+            }
+            c = interleaved ? p : c + 1;
+        }
+    }
+
+    public static void writeGroupVarInts(CcOutput out, int[] is, int count) throws IOException {
+        int length = is != null ? is.length : 0;
+        count = writeCount(out, length, count);
+        // room for a full int written past the last value
+        byte[] data = new byte[((count + 3) >>> 2) + count * 4 + 4];
+        int size = encodeGroups(is, length, count, data, true);
+        writeVarInt(out, size);
+        out.writeBytes(data, 0, size);
+    }
+
+    public static int[] readGroupVarInts(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        int size = readVarInt(in);
+        byte[] data = new byte[size + 4];
+        in.readFully(data, 0, size);
+        int[] is = new int[count];
+        decodeGroups(data, 0, 0, true, is, count);
+        return is;
+    }
+
+    public static void writeStreamVByteInts(CcOutput out, int[] is, int count) throws IOException {
+        int length = is != null ? is.length : 0;
+        count = writeCount(out, length, count);
+        byte[] data = new byte[((count + 3) >>> 2) + count * 4 + 4];
+        int size = encodeGroups(is, length, count, data, false);
+        out.writeBytes(data, 0, size);
+    }
+
+    public static int[] readStreamVByteInts(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        int controls = (count + 3) >>> 2;
+        byte[] control = new byte[controls];
+        in.readFully(control, 0, controls);
+        int size = controls;
+        for (byte c : control)
+            size += INT_GROUP_LENGTHS[c & 0xFF];
+        // the unused slots of the last group were encoded as 1 byte long
+        size -= (controls << 2) - count;
+        byte[] data = new byte[size + 4];
+        System.arraycopy(control, 0, data, 0, controls);
+        in.readFully(data, controls, size - controls);
         int[] is = new int[count];
+        decodeGroups(data, 0, controls, false, is, count);
+        return is;
+    }
+
+    public static void writeGroupVarLongs(CcOutput out, long[] ls, int count) throws IOException {
+        int length = ls != null ? ls.length : 0;
+        count = writeCount(out, length, count);
+        byte[] data = new byte[((count + 1) >>> 1) + count * 8 + 8];
+        int size = encodeGroups(ls, length, count, data, true);
+        writeVarInt(out, size);
+        out.writeBytes(data, 0, size);
+    }
+
+    public static long[] readGroupVarLongs(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        int size = readVarInt(in);
+        byte[] data = new byte[size + 8];
+        in.readFully(data, 0, size);
+        long[] ls = new long[count];
+        decodeGroups(data, 0, 0, true, ls, count);
+        return ls;
+    }
+
+    public static void writeStreamVByteLongs(CcOutput out, long[] ls, int count) throws IOException {
+        int length = ls != null ? ls.length : 0;
+        count = writeCount(out, length, count);
+        byte[] data = new byte[((count + 1) >>> 1) + count * 8 + 8];
+        int size = encodeGroups(ls, length, count, data, false);
+        out.writeBytes(data, 0, size);
+    }
+
+    public static long[] readStreamVByteLongs(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        int controls = (count + 1) >>> 1;
+        byte[] control = new byte[controls];
+        in.readFully(control, 0, controls);
+        int size = controls;
+        for (byte c : control)
+            size += LONG_GROUP_LENGTHS[c & 0xFF];
+        size -= (controls << 1) - count;
+        byte[] data = new byte[size + 8];
+        System.arraycopy(control, 0, data, 0, controls);
+        in.readFully(data, controls, size - controls);
+        long[] ls = new long[count];
+        decodeGroups(data, 0, controls, false, ls, count);
+        return ls;
+    }
+
+    private static void writeDeltas(CcOutput out, int[] is, int count, boolean ofDelta) throws IOException {
+        int length = is != null ? is.length : 0;
+        count = writeCount(out, length, count);
+        int previous = 0;
+        int previousDelta = 0;
         for (int i = 0; i < count; i++) {
-            is[i] = readVarInt(in);
+            int value = i < length ? is[i] : 0;
+            int delta = value - previous;
+            writeZigZagVarInt(out, ofDelta ? delta - previousDelta : delta);
+            previous = value;
+            previousDelta = i == 0 ? 0 : delta;
+        }
+    }
+
+    private static int[] readIntDeltas(CcInput in, int count, boolean ofDelta) throws IOException {
+        int[] is = readZigZagVarInts(in, count);
+        int previous = 0;
+        int delta = 0;
+        for (int i = 0; i < is.length; i++) {
+            if (ofDelta && i > 1)
+                delta += is[i];
+            else
+                delta = is[i];
+            previous += delta;
+            is[i] = previous;
         }
         return is;
     }
 
-    public static void writeLongs(OutputStream out, long[] ls, int count) throws IOException {
+    private static void writeDeltas(CcOutput out, long[] ls, int count, boolean ofDelta) throws IOException {
+        int length = ls != null ? ls.length : 0;
+        count = writeCount(out, length, count);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long value = i < length ? ls[i] : 0L;
+            long delta = value - previous;
+            writeZigZagVarLong(out, ofDelta ? delta - previousDelta : delta);
+            previous = value;
+            previousDelta = i == 0 ? 0 : delta;
+        }
+    }
+
+    private static long[] readLongDeltas(CcInput in, int count, boolean ofDelta) throws IOException {
+        long[] ls = readZigZagVarLongs(in, count);
+        long previous = 0;
+        long delta = 0;
+        for (int i = 0; i < ls.length; i++) {
+            if (ofDelta && i > 1)
+                delta += ls[i];
+            else
+                delta = ls[i];
+            previous += delta;
+            ls[i] = previous;
+        }
+        return ls;
+    }
+
+    public static void writeDeltaInts(CcOutput out, int[] is, int count) throws IOException {
+        writeDeltas(out, is, count, false);
+    }
+
+    public static int[] readDeltaInts(CcInput in, int count) throws IOException {
+        return readIntDeltas(in, count, false);
+    }
+
+    public static void writeDeltaOfDeltaInts(CcOutput out, int[] is, int count) throws IOException {
+        writeDeltas(out, is, count, true);
+    }
+
+    public static int[] readDeltaOfDeltaInts(CcInput in, int count) throws IOException {
+        return readIntDeltas(in, count, true);
+    }
+
+    public static void writeDeltaLongs(CcOutput out, long[] ls, int count) throws IOException {
+        writeDeltas(out, ls, count, false);
+    }
+
+    public static long[] readDeltaLongs(CcInput in, int count) throws IOException {
+        return readLongDeltas(in, count, false);
+    }
+
+    public static void writeDeltaOfDeltaLongs(CcOutput out, long[] ls, int count) throws IOException {
+        writeDeltas(out, ls, count, true);
+    }
+
+    public static long[] readDeltaOfDeltaLongs(CcInput in, int count) throws IOException {
+        return readLongDeltas(in, count, true);
+    }
+
+    public static void writeDeltaInts(CcOutput out, Collection<Integer> c, int count) throws IOException {
+        writeDeltas(out, CollectionUtils.toIntArray(c), count, false);
+    }
+
+    public static Collection<Integer> readDeltaInts(CcInput in, int count, Function<Integer, Collection<Integer>> creator) throws IOException {
+        return CollectionUtils.toCollection(readIntDeltas(in, count, false), creator);
+    }
+
+    public static void writeDeltaOfDeltaInts(CcOutput out, Collection<Integer> c, int count) throws IOException {
+        writeDeltas(out, CollectionUtils.toIntArray(c), count, true);
+    }
+
+    public static Collection<Integer> readDeltaOfDeltaInts(CcInput in, int count, Function<Integer, Collection<Integer>> creator) throws IOException {
+        return CollectionUtils.toCollection(readIntDeltas(in, count, true), creator);
+    }
+
+    public static void writeDeltaLongs(CcOutput out, Collection<Long> c, int count) throws IOException {
+        writeDeltas(out, CollectionUtils.toLongArray(c), count, false);
+    }
+
+    public static Collection<Long> readDeltaLongs(CcInput in, int count, Function<Integer, Collection<Long>> creator) throws IOException {
+        return CollectionUtils.toCollection(readLongDeltas(in, count, false), creator);
+    }
+
+    public static void writeDeltaOfDeltaLongs(CcOutput out, Collection<Long> c, int count) throws IOException {
+        writeDeltas(out, CollectionUtils.toLongArray(c), count, true);
+    }
+
+    public static Collection<Long> readDeltaOfDeltaLongs(CcInput in, int count, Function<Integer, Collection<Long>> creator) throws IOException {
+        return CollectionUtils.toCollection(readLongDeltas(in, count, true), creator);
+    }
+
+    /**
+     * Writes values of up to 64 bits, most significant bit first, packed into consecutive bytes.
+     * {@link #flush()} pads the last byte with zeros.
+     */
+    public static final class BitWriter {
+
+        private final CcOutput out;
+        private long bits;
+        private int count;
+
+        public BitWriter(CcOutput out) {
+            this.out = out;
+        }
+
+        public void writeBit(boolean bit) throws IOException {
+            writeBits(bit ? 1 : 0, 1);
+        }
+
+        public void writeBits(long value, int n) throws IOException {
+            if (n == 0)
+                return;
+            if (n > 32) {
+                writeBits(value >>> 32, n - 32);
+                n = 32;
+            }
+            bits = bits << n | value & (-1L >>> (64 - n));
+            count += n;
+            while (count >= 8) {
+                count -= 8;
+                out.writeByte((int) (bits >>> count));
+            }
+            bits &= (1L << count) - 1;
+        }
+
+        public void flush() throws IOException {
+            if (count > 0) {
+                out.writeByte((int) (bits << (8 - count)));
+                bits = 0;
+                count = 0;
+            }
+        }
+
+    }
+
+    /**
+     * Reads the values written by a {@link BitWriter}, consuming the bytes only as their bits are needed.
+     */
+    public static final class BitReader {
+
+        private final CcInput in;
+        private long bits;
+        private int count;
+
+        public BitReader(CcInput in) {
+            this.in = in;
+        }
+
+        public boolean readBit() throws IOException {
+            return readBits(1) != 0;
+        }
+
+        public long readBits(int n) throws IOException {
+            if (n > 32) {
+                long high = readBits(n - 32);
+                return high << 32 | readBits(32);
+            }
+            while (count < n) {
+                bits = bits << 8 | in.readByte() & 0xFF;
+                count += 8;
+            }
+            count -= n;
+            long value = (bits >>> count) & ((1L << n) - 1);
+            bits &= (1L << count) - 1;
+            return value;
+        }
+
+    }
+
+    // XOR with the previous value, the meaningful bits of the XOR are written with a window of leading and trailing
+    // zeros, which is reused while the XORs fit in it
+    private static void writeXor(BitWriter writer, long[] values, int count, int width) throws IOException {
+        int lengthBits = width == 64 ? 6 : 5;
+        long previous = values[0];
+        writer.writeBits(previous, width);
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            long xor = values[i] ^ previous;
+            previous = values[i];
+            if (xor == 0) {
+                writer.writeBit(false);
+                continue;
+            }
+            writer.writeBit(true);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor) - (64 - width), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                writer.writeBit(false);
+                writer.writeBits(xor >>> previousTrailing, width - previousLeading - previousTrailing);
+            } else {
+                int meaningful = width - leading - trailing;
+                writer.writeBit(true);
+                writer.writeBits(leading, 5);
+                writer.writeBits(meaningful - 1, lengthBits);
+                writer.writeBits(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        writer.flush();
+    }
+
+    private static long[] readXor(BitReader reader, int count, int width) throws IOException {
+        int lengthBits = width == 64 ? 6 : 5;
+        long[] values = new long[count];
+        long previous = reader.readBits(width);
+        values[0] = previous;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (reader.readBit()) {
+                if (reader.readBit()) {
+                    leading = (int) reader.readBits(5);
+                    int meaningful = (int) reader.readBits(lengthBits) + 1;
+                    trailing = width - leading - meaningful;
+                }
+                previous ^= reader.readBits(width - leading - trailing) << trailing;
+            }
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    public static void writeXorDoubles(CcOutput out, double[] ds, int count) throws IOException {
+        int length = ds != null ? ds.length : 0;
+        count = writeCount(out, length, count);
+        if (count == 0)
+            return;
+        long[] bits = new long[count];
+        for (int i = 0; i < count && i < length; i++)
+            bits[i] = Double.doubleToRawLongBits(ds[i]);
+        writeXor(new BitWriter(out), bits, count, 64);
+    }
+
+    public static double[] readXorDoubles(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        double[] ds = new double[count];
+        if (count == 0)
+            return ds;
+        long[] bits = readXor(new BitReader(in), count, 64);
+        for (int i = 0; i < count; i++)
+            ds[i] = Double.longBitsToDouble(bits[i]);
+        return ds;
+    }
+
+    public static void writeXorFloats(CcOutput out, float[] fs, int count) throws IOException {
+        int length = fs != null ? fs.length : 0;
+        count = writeCount(out, length, count);
+        if (count == 0)
+            return;
+        long[] bits = new long[count];
+        for (int i = 0; i < count && i < length; i++)
+            bits[i] = Float.floatToRawIntBits(fs[i]) & 0xFFFFFFFFL;
+        writeXor(new BitWriter(out), bits, count, 32);
+    }
+
+    public static float[] readXorFloats(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        float[] fs = new float[count];
+        if (count == 0)
+            return fs;
+        long[] bits = readXor(new BitReader(in), count, 32);
+        for (int i = 0; i < count; i++)
+            fs[i] = Float.intBitsToFloat((int) bits[i]);
+        return fs;
+    }
+
+    private static final int PACKED_BLOCK = 128;
+
+    // packs the differences with min of a block, least significant bit first
+    private static int packBlock(int[] is, int length, int from, int n, int min, int width, byte[] block) {
+        int size = (n * width + 7) >>> 3;
+        Arrays.fill(block, 0, size + Long.BYTES, (byte) 0);
+        for (int i = 0; i < n; i++) {
+            int index = from + i;
+            long value = ((index < length ? is[index] : 0) - min) & 0xFFFFFFFFL;
+            int bit = i * width;
+            int p = bit >>> 3;
+            LONG.set(block, p, (long) LONG.get(block, p) | value << (bit & 7));
+        }
+        return size;
+    }
+
+    private static void unpackBlock(byte[] block, int n, int min, int width, int[] is, int from) {
+        long mask = (1L << width) - 1;
+        for (int i = 0, bit = 0; i < n; i++, bit += width)
+            is[from + i] = min + (int) (((long) LONG.get(block, bit >>> 3) >>> (bit & 7)) & mask);
+    }
+
+    public static void writeBitPackedInts(CcOutput out, int[] is, int count) throws IOException {
+        int length = is != null ? is.length : 0;
+        count = writeCount(out, length, count);
+        if (count == 0)
+            return;
+        int min = count > length ? 0 : Integer.MAX_VALUE;
+        int max = count > length ? 0 : Integer.MIN_VALUE;
+        for (int i = 0; i < length && i < count; i++) {
+            min = Math.min(min, is[i]);
+            max = Math.max(max, is[i]);
+        }
+        int width = 64 - Long.numberOfLeadingZeros((long) max - min);
+        writeZigZagVarInt(out, min);
+        out.writeByte(width);
+        if (width == 0)
+            return;
+        byte[] block = new byte[PACKED_BLOCK / 8 * width + Long.BYTES];
+        for (int from = 0; from < count; from += PACKED_BLOCK) {
+            int size = packBlock(is, length, from, Math.min(PACKED_BLOCK, count - from), min, width, block);
+            out.writeBytes(block, 0, size);
+        }
+    }
+
+    public static int[] readBitPackedInts(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        int[] is = new int[count];
+        if (count == 0)
+            return is;
+        int min = readZigZagVarInt(in);
+        int width = in.readByte();
+        if (width < 0 || width > 32)
+            throw new IOException("Invalid bit width " + width);
+        if (width == 0) {
+            Arrays.fill(is, min);
+            return is;
+        }
+        byte[] block = new byte[PACKED_BLOCK / 8 * width + Long.BYTES];
+        for (int from = 0; from < count; from += PACKED_BLOCK) {
+            int n = Math.min(PACKED_BLOCK, count - from);
+            in.readFully(block, 0, (n * width + 7) >>> 3);
+            unpackBlock(block, n, min, width, is, from);
+        }
+        return is;
+    }
+
+    public static void writeBitPackedInts(CcOutput out, Collection<Integer> c, int count) throws IOException {
+        writeBitPackedInts(out, CollectionUtils.toIntArray(c), count);
+    }
+
+    public static Collection<Integer> readBitPackedInts(CcInput in, int count, Function<Integer, Collection<Integer>> creator) throws IOException {
+        return CollectionUtils.toCollection(readBitPackedInts(in, count), creator);
+    }
+
+    public static void writeLongs(CcOutput out, long[] ls, int count) throws IOException {
         int length = ls != null ? ls.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
             count = length;
         }
-        for (int i = 0; i < count; i++) {
-            if (ls != null && i < length)
-                writeLong(out, ls[i]);
-            else
-                writeLong(out, 0L);
-        }
+        int n = Math.min(count, length);
+        if (n > 0)
+            out.writeLongs(ls, 0, n);
+        if (count > n)
+            out.writeZeros((count - n) * 8);
     }
 
-    public static void writeVarLongs(OutputStream out, long[] ls, int count) throws IOException {
+    public static void writeVarLongs(CcOutput out, long[] ls, int count) throws IOException {
         int length = ls != null ? ls.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
@@ -423,29 +1153,52 @@ public final class BinaryUtils {
         }
     }
 
-    public static long[] readLongs(InputStream in, int count) throws IOException {
+    public static long[] readLongs(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
         long[] ls = new long[count];
-        for (int i = 0; i < count; i++) {
-            ls[i] = readLong(in);
+        in.readLongs(ls, 0, count);
+        return ls;
+    }
+
+    public static long[] readVarLongs(CcInput in, int count) throws IOException {
+        if (count == -1) {
+            count = readVarInt(in);
         }
+        long[] ls = new long[count];
+        in.readVarLongs(ls, 0, count);
         return ls;
     }
 
-    public static long[] readVarLongs(InputStream in, int count) throws IOException {
+    public static void writeZigZagVarLongs(CcOutput out, long[] ls, int count) throws IOException {
+        int length = ls != null ? ls.length : 0;
+        if (count == -1) {
+            writeVarInt(out, length);
+            count = length;
+        }
+        for (int i = 0; i < count; i++) {
+            if (ls != null && i < length)
+                writeZigZagVarLong(out, ls[i]);
+            else
+                writeZigZagVarLong(out, 0L);
+        }
+    }
+
+    public static long[] readZigZagVarLongs(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
         long[] ls = new long[count];
+        in.readVarLongs(ls, 0, count);
         for (int i = 0; i < count; i++) {
-            ls[i] = readVarLong(in);
+            long n = ls[i];
+            ls[i] = (n >>> 1) ^ -(n & 1);
         }
         return ls;
     }
 
-    public static void writeString(OutputStream out, String s, int count, String charsetName) throws IOException {
+    public static void writeString(CcOutput out, String s, int count, String charsetName) throws IOException {
         writeBytes(out, s != null ? s.getBytes(charsetName) : null, count);
     }
 
@@ -453,251 +1206,553 @@ public final class BinaryUtils {
         return (out, s) -> writeString(out, s, count, charset);
     }
 
-    public static String readString(InputStream in, int count, String charsetName) throws IOException {
+    public static String readString(CcInput in, int count, String charsetName) throws IOException {
         byte[] bytes = readBytes(in, count);
         int i = 0; for (; i < bytes.length && bytes[i] != 0; i++) { }
         return new String(bytes, 0, i, charsetName);
     }
 
-    public static void writeBytes(OutputStream out, byte[] bytes, int count) throws IOException {
+    // a string already in the dictionary of the session is its id shifted left with the lowest bit set,
+    // a new one is its length shifted left followed by its bytes
+    public static void writeDictionaryString(CcOutput out, String s, String charsetName) throws IOException {
+        if (s == null || s.isEmpty()) {
+            writeVarInt(out, 0);
+            return;
+        }
+        int id = out.stringId(s);
+        if (id >= 0) {
+            writeVarInt(out, id << 1 | 1);
+            return;
+        }
+        byte[] bytes = s.getBytes(charsetName);
+        writeVarInt(out, bytes.length << 1);
+        out.writeBytes(bytes, 0, bytes.length);
+    }
+
+    public static String readDictionaryString(CcInput in, String charsetName) throws IOException {
+        int tag = readVarInt(in);
+        if ((tag & 1) != 0)
+            return in.string(tag >>> 1);
+        if (tag == 0)
+            return "";
+        byte[] bytes = new byte[tag >>> 1];
+        in.readFully(bytes, 0, bytes.length);
+        String s = new String(bytes, charsetName);
+        in.addString(s);
+        return s;
+    }
+
+    public static void writeBytes(CcOutput out, byte[] bytes, int count) throws IOException {
         int length = bytes != null ? bytes.length : 0;
         if (count == -1) {
             writeVarInt(out, length);
             count = length;
         }
-        for (int i = 0; i < count; i++) {
-            if (bytes != null && i < length)
-                out.write(bytes[i]);
-            else
-                out.write(0);
-        }
+        int n = Math.min(length, count);
+        if (n > 0)
+            out.writeBytes(bytes, 0, n);
+        if (count > n)
+            out.writeZeros(count - n);
     }
 
-    public static byte[] readBytes(InputStream in, int count) throws IOException {
+    public static byte[] readBytes(CcInput in, int count) throws IOException {
         if (count == -1) {
             count = readVarInt(in);
         }
         byte[] result = new byte[count];
-        if (in.read(result) != count) throw newEndOfStreamException();
+        in.readFully(result, 0, count);
         return result;
     }
 
-    public static void writeByte(OutputStream out, Byte b) throws IOException {
-        writeByte(out, b == null ? 0 : b);
+    // shortest run of equal values written as a repeated run, shorter ones stay in the literal runs
+    private static final int MIN_REPEAT = 3;
+
+    private static void writeRun(CcOutput out, int length, boolean repeated) throws IOException {
+        writeVarInt(out, length << 1 | (repeated ? 1 : 0));
     }
 
-    public static void writeByte(OutputStream out, byte b) throws IOException {
-        out.write(b & 0xff);
+    private static int readRun(CcInput in, int remaining) throws IOException {
+        int header = readVarInt(in);
+        int length = header >>> 1;
+        if (length == 0 || length > remaining)
+            throw new IOException("Invalid run length " + length);
+        return header;
     }
 
-    public static byte readByte(InputStream in) throws IOException {
-        int b = in.read();
-        if (b == -1) throw newEndOfStreamException();
-        return (byte) (b & 0xff);
+    public static void writeRunLengthBytes(CcOutput out, byte[] bytes, int count) throws IOException {
+        int length = bytes != null ? bytes.length : 0;
+        count = writeCount(out, length, count);
+        int end = Math.min(length, count);
+        int literal = 0;
+        int i = 0;
+        while (i < end) {
+            int j = i + 1;
+            while (j < end && bytes[j] == bytes[i])
+                j++;
+            if (j - i >= MIN_REPEAT) {
+                if (i > literal) {
+                    writeRun(out, i - literal, false);
+                    out.writeBytes(bytes, literal, i - literal);
+                }
+                writeRun(out, j - i, true);
+                out.writeByte(bytes[i]);
+                literal = j;
+            }
+            i = j;
+        }
+        if (end > literal) {
+            writeRun(out, end - literal, false);
+            out.writeBytes(bytes, literal, end - literal);
+        }
+        if (count > end) {
+            writeRun(out, count - end, true);
+            out.writeByte(0);
+        }
     }
 
-    private static IOException newEndOfStreamException() {
-        return new EOFException("Unexpected end of stream.");
+    public static byte[] readRunLengthBytes(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; ) {
+            int header = readRun(in, count - i);
+            int length = header >>> 1;
+            if ((header & 1) != 0) {
+                byte value = in.readByte();
+                if (value != 0)
+                    Arrays.fill(bytes, i, i + length, value);
+            } else {
+                in.readFully(bytes, i, length);
+            }
+            i += length;
+        }
+        return bytes;
     }
 
-    public static void writeBoolean(OutputStream out, Boolean b) throws IOException {
+    public static void writeRunLengthChars(CcOutput out, char[] chars, int count) throws IOException {
+        int length = chars != null ? chars.length : 0;
+        count = writeCount(out, length, count);
+        int end = Math.min(length, count);
+        int literal = 0;
+        int i = 0;
+        while (i < end) {
+            int j = i + 1;
+            while (j < end && chars[j] == chars[i])
+                j++;
+            if (j - i >= MIN_REPEAT) {
+                if (i > literal) {
+                    writeRun(out, i - literal, false);
+                    out.writeChars(chars, literal, i - literal);
+                }
+                writeRun(out, j - i, true);
+                out.writeShort(chars[i]);
+                literal = j;
+            }
+            i = j;
+        }
+        if (end > literal) {
+            writeRun(out, end - literal, false);
+            out.writeChars(chars, literal, end - literal);
+        }
+        if (count > end) {
+            writeRun(out, count - end, true);
+            out.writeShort(0);
+        }
+    }
+
+    public static char[] readRunLengthChars(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        char[] chars = new char[count];
+        for (int i = 0; i < count; ) {
+            int header = readRun(in, count - i);
+            int length = header >>> 1;
+            if ((header & 1) != 0) {
+                char value = (char) in.readShort();
+                if (value != 0)
+                    Arrays.fill(chars, i, i + length, value);
+            } else {
+                in.readChars(chars, i, length);
+            }
+            i += length;
+        }
+        return chars;
+    }
+
+    public static void writeRunLengthInts(CcOutput out, int[] is, int count) throws IOException {
+        int length = is != null ? is.length : 0;
+        count = writeCount(out, length, count);
+        int end = Math.min(length, count);
+        int literal = 0;
+        int i = 0;
+        while (i < end) {
+            int j = i + 1;
+            while (j < end && is[j] == is[i])
+                j++;
+            if (j - i >= MIN_REPEAT) {
+                if (i > literal) {
+                    writeRun(out, i - literal, false);
+                    out.writeInts(is, literal, i - literal);
+                }
+                writeRun(out, j - i, true);
+                out.writeInt(is[i]);
+                literal = j;
+            }
+            i = j;
+        }
+        if (end > literal) {
+            writeRun(out, end - literal, false);
+            out.writeInts(is, literal, end - literal);
+        }
+        if (count > end) {
+            writeRun(out, count - end, true);
+            out.writeInt(0);
+        }
+    }
+
+    public static int[] readRunLengthInts(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        int[] is = new int[count];
+        for (int i = 0; i < count; ) {
+            int header = readRun(in, count - i);
+            int length = header >>> 1;
+            if ((header & 1) != 0) {
+                int value = in.readInt();
+                if (value != 0)
+                    Arrays.fill(is, i, i + length, value);
+            } else {
+                in.readInts(is, i, length);
+            }
+            i += length;
+        }
+        return is;
+    }
+
+    public static void writeRunLengthLongs(CcOutput out, long[] ls, int count) throws IOException {
+        int length = ls != null ? ls.length : 0;
+        count = writeCount(out, length, count);
+        int end = Math.min(length, count);
+        int literal = 0;
+        int i = 0;
+        while (i < end) {
+            int j = i + 1;
+            while (j < end && ls[j] == ls[i])
+                j++;
+            if (j - i >= MIN_REPEAT) {
+                if (i > literal) {
+                    writeRun(out, i - literal, false);
+                    out.writeLongs(ls, literal, i - literal);
+                }
+                writeRun(out, j - i, true);
+                out.writeLong(ls[i]);
+                literal = j;
+            }
+            i = j;
+        }
+        if (end > literal) {
+            writeRun(out, end - literal, false);
+            out.writeLongs(ls, literal, end - literal);
+        }
+        if (count > end) {
+            writeRun(out, count - end, true);
+            out.writeLong(0L);
+        }
+    }
+
+    public static long[] readRunLengthLongs(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        long[] ls = new long[count];
+        for (int i = 0; i < count; ) {
+            int header = readRun(in, count - i);
+            int length = header >>> 1;
+            if ((header & 1) != 0) {
+                long value = in.readLong();
+                if (value != 0)
+                    Arrays.fill(ls, i, i + length, value);
+            } else {
+                in.readLongs(ls, i, length);
+            }
+            i += length;
+        }
+        return ls;
+    }
+
+    public static void writeRunLengthFloats(CcOutput out, float[] fs, int count) throws IOException {
+        int length = fs != null ? fs.length : 0;
+        count = writeCount(out, length, count);
+        int end = Math.min(length, count);
+        int literal = 0;
+        int i = 0;
+        while (i < end) {
+            int j = i + 1;
+            while (j < end && Float.floatToRawIntBits(fs[j]) == Float.floatToRawIntBits(fs[i]))
+                j++;
+            if (j - i >= MIN_REPEAT) {
+                if (i > literal) {
+                    writeRun(out, i - literal, false);
+                    out.writeFloats(fs, literal, i - literal);
+                }
+                writeRun(out, j - i, true);
+                out.writeInt(Float.floatToRawIntBits(fs[i]));
+                literal = j;
+            }
+            i = j;
+        }
+        if (end > literal) {
+            writeRun(out, end - literal, false);
+            out.writeFloats(fs, literal, end - literal);
+        }
+        if (count > end) {
+            writeRun(out, count - end, true);
+            out.writeInt(0);
+        }
+    }
+
+    public static float[] readRunLengthFloats(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        float[] fs = new float[count];
+        for (int i = 0; i < count; ) {
+            int header = readRun(in, count - i);
+            int length = header >>> 1;
+            if ((header & 1) != 0) {
+                float value = Float.intBitsToFloat(in.readInt());
+                if (Float.floatToRawIntBits(value) != 0)
+                    Arrays.fill(fs, i, i + length, value);
+            } else {
+                in.readFloats(fs, i, length);
+            }
+            i += length;
+        }
+        return fs;
+    }
+
+    public static void writeRunLengthDoubles(CcOutput out, double[] ds, int count) throws IOException {
+        int length = ds != null ? ds.length : 0;
+        count = writeCount(out, length, count);
+        int end = Math.min(length, count);
+        int literal = 0;
+        int i = 0;
+        while (i < end) {
+            int j = i + 1;
+            while (j < end && Double.doubleToRawLongBits(ds[j]) == Double.doubleToRawLongBits(ds[i]))
+                j++;
+            if (j - i >= MIN_REPEAT) {
+                if (i > literal) {
+                    writeRun(out, i - literal, false);
+                    out.writeDoubles(ds, literal, i - literal);
+                }
+                writeRun(out, j - i, true);
+                out.writeLong(Double.doubleToRawLongBits(ds[i]));
+                literal = j;
+            }
+            i = j;
+        }
+        if (end > literal) {
+            writeRun(out, end - literal, false);
+            out.writeDoubles(ds, literal, end - literal);
+        }
+        if (count > end) {
+            writeRun(out, count - end, true);
+            out.writeLong(0L);
+        }
+    }
+
+    public static double[] readRunLengthDoubles(CcInput in, int count) throws IOException {
+        count = readCount(in, count);
+        double[] ds = new double[count];
+        for (int i = 0; i < count; ) {
+            int header = readRun(in, count - i);
+            int length = header >>> 1;
+            if ((header & 1) != 0) {
+                double value = Double.longBitsToDouble(in.readLong());
+                if (Double.doubleToRawLongBits(value) != 0)
+                    Arrays.fill(ds, i, i + length, value);
+            } else {
+                in.readDoubles(ds, i, length);
+            }
+            i += length;
+        }
+        return ds;
+    }
+
+    public static void writeBitmap(CcOutput out, long bitmap, int bytes) throws IOException {
+        for (int i = 0; i < bytes; i++, bitmap >>>= 8)
+            out.writeByte((int) bitmap);
+    }
+
+    public static long readBitmap(CcInput in, int bytes) throws IOException {
+        long bitmap = 0;
+        for (int i = 0; i < bytes; i++)
+            bitmap |= (in.readByte() & 0xFFL) << (i << 3);
+        return bitmap;
+    }
+
+    public static void writeByte(CcOutput out, Byte b) throws IOException {
+        writeByte(out, b == null ? 0 : b);
+    }
+
+    public static void writeByte(CcOutput out, byte b) throws IOException {
+        out.writeByte(b);
+    }
+
+    public static byte readByte(CcInput in) throws IOException {
+        return in.readByte();
+    }
+
+    public static void writeBoolean(CcOutput out, Boolean b) throws IOException {
         writeBoolean(out, b != null && b);
     }
 
-    public static void writeBoolean(OutputStream out, boolean b) throws IOException {
-        out.write(b ? 1 : 0);
+    public static void writeBoolean(CcOutput out, boolean b) throws IOException {
+        out.writeByte(b ? 1 : 0);
     }
 
-    public static boolean readBoolean(InputStream in) throws IOException {
-        return readByte(in) == 1;
+    public static boolean readBoolean(CcInput in) throws IOException {
+        return in.readByte() == 1;
     }
 
-    public static void writeShort(OutputStream out, Character s) throws IOException {
+    public static void writeShort(CcOutput out, Character s) throws IOException {
         writeShort(out, s == null ? 0 : s);
     }
 
-    public static void writeShort(OutputStream out, short s) throws IOException {
-        out.write(s & 0xff);
-        out.write((s >> 8) & 0xff);
+    public static void writeShort(CcOutput out, short s) throws IOException {
+        out.writeShort(s);
     }
 
-    public static short readShort(InputStream in) throws IOException {
-        return (short) ((readByte(in) & 0xff) | ((readByte(in) & 0xff) << 8));
+    public static short readShort(CcInput in) throws IOException {
+        return in.readShort();
     }
 
-    public static void writeChar(OutputStream out, Character s) throws IOException {
+    public static void writeChar(CcOutput out, Character s) throws IOException {
         writeChar(out, s == null ? 0 : s);
     }
 
-    public static void writeChar(OutputStream out, char s) throws IOException {
-        out.write(s & 0xff);
-        out.write((s >> 8) & 0xff);
+    public static void writeChar(CcOutput out, char s) throws IOException {
+        out.writeShort(s);
     }
 
-    public static char readChar(InputStream in) throws IOException {
-        return (char) ((readByte(in) & 0xff) | ((readByte(in) & 0xff) << 8));
+    public static char readChar(CcInput in) throws IOException {
+        return (char) in.readShort();
     }
 
-    public static void writeVarFloat(OutputStream out, Float value) throws IOException {
+    public static void writeVarFloat(CcOutput out, Float value) throws IOException {
         writeVarFloat(out, value == null ? 0f : value);
     }
 
-    public static void writeVarFloat(OutputStream out, float value) throws IOException {
-        writeVarInt(out, Float.floatToRawIntBits(value));
+    public static void writeVarFloat(CcOutput out, float value) throws IOException {
+        out.writeVarInt(Float.floatToRawIntBits(value));
     }
 
-    public static void writeFloat(OutputStream out, Float value) throws IOException {
+    public static void writeFloat(CcOutput out, Float value) throws IOException {
         writeFloat(out, value == null ? 0f : value);
     }
 
-    public static void writeFloat(OutputStream out, float value) throws IOException {
-        writeInt(out, Float.floatToRawIntBits(value));
+    public static void writeFloat(CcOutput out, float value) throws IOException {
+        out.writeInt(Float.floatToRawIntBits(value));
     }
 
-    public static void writeVarInt(OutputStream out, Integer i) throws IOException {
+    public static void writeVarInt(CcOutput out, Integer i) throws IOException {
         writeVarInt(out, i == null ? 0 : i);
     }
 
-    public static void writeVarInt(OutputStream out, int value) throws IOException {
-        while ((value & ~0x7F) != 0) {
-            out.write((value & 0x7F) | 0x80);
-            value >>>= 7;
-        }
-        out.write(value & 0x7F);
+    public static void writeVarInt(CcOutput out, int value) throws IOException {
+        out.writeVarInt(value);
     }
 
-    public static void writeInt(OutputStream out, Integer i) throws IOException {
+    public static void writeInt(CcOutput out, Integer i) throws IOException {
         writeInt(out, i == null ? 0 : i);
     }
 
-    public static void writeInt(OutputStream out, int i) throws IOException {
-        out.write(i & 0xff);
-        out.write((i >> 8) & 0xff);
-        out.write((i >> 16) & 0xff);
-        out.write((i >> 24) & 0xff);
+    public static void writeInt(CcOutput out, int i) throws IOException {
+        out.writeInt(i);
     }
 
-    public static void writeVarDouble(OutputStream out, Double value) throws IOException {
+    public static void writeVarDouble(CcOutput out, Double value) throws IOException {
         writeVarDouble(out, value == null ? 0d : value);
     }
 
-    public static void writeVarDouble(OutputStream out, double value) throws IOException {
-        writeVarLong(out, Double.doubleToLongBits(value));
+    public static void writeVarDouble(CcOutput out, double value) throws IOException {
+        out.writeVarLong(Double.doubleToLongBits(value));
     }
 
-    public static void writeDouble(OutputStream out, Double value) throws IOException {
+    public static void writeDouble(CcOutput out, Double value) throws IOException {
         writeDouble(out, value == null ? 0d : value);
     }
 
-    public static void writeDouble(OutputStream out, double value) throws IOException {
-        writeLong(out, Double.doubleToLongBits(value));
+    public static void writeDouble(CcOutput out, double value) throws IOException {
+        out.writeLong(Double.doubleToLongBits(value));
     }
 
-    public static void writeVarLong(OutputStream out, Long value) throws IOException {
+    public static void writeVarLong(CcOutput out, Long value) throws IOException {
         writeVarLong(out, value == null ? 0L : value);
     }
 
-    public static void writeVarLong(OutputStream out, long value) throws IOException {
-        while ((value & ~0x7F) != 0) {
-            out.write((int) ((value & 0x7F) | 0x80));
-            value >>>= 7;
-        }
-        out.write((int) (value & 0x7F));
+    public static void writeVarLong(CcOutput out, long value) throws IOException {
+        out.writeVarLong(value);
     }
 
-    public static void writeLong(OutputStream out, Long value) throws IOException {
+    public static void writeLong(CcOutput out, Long value) throws IOException {
         writeLong(out, value == null ? 0L : value);
     }
 
-    public static void writeLong(OutputStream out, long l) throws IOException {
-        out.write((int) (l & 0xff));
-        out.write((int) ((l >> 8) & 0xff));
-        out.write((int) ((l >> 16) & 0xff));
-        out.write((int) ((l >> 24) & 0xff));
-        out.write((int) ((l >> 32) & 0xff));
-        out.write((int) ((l >> 40) & 0xff));
-        out.write((int) ((l >> 48) & 0xff));
-        out.write((int) ((l >> 56) & 0xff));
+    public static void writeLong(CcOutput out, long l) throws IOException {
+        out.writeLong(l);
     }
 
-    public static int readVarInt(InputStream in) throws IOException {
-        int value = 0;
-        int position = 0;
-        int currentByte;
+    public static void writeZigZagVarInt(CcOutput out, Integer i) throws IOException {
+        writeZigZagVarInt(out, i == null ? 0 : i);
+    }
 
-        while (true) {
-            currentByte = readByte(in);
-            if (currentByte == -1) {
-                throw new EOFException("Unexpected end of stream while reading VarInt");
-            }
-            value |= (currentByte & 0x7F) << position;
-            if ((currentByte & 0x80) == 0) {
-                break;
-            }
-            position += 7;
-            if (position >= 32) {
-                throw new IOException("VarInt is too big");
-            }
-        }
+    public static void writeZigZagVarInt(CcOutput out, int value) throws IOException {
+        out.writeVarInt((value << 1) ^ (value >> 31));
+    }
 
-        return value;
+    public static void writeZigZagVarLong(CcOutput out, Long l) throws IOException {
+        writeZigZagVarLong(out, l == null ? 0L : l);
     }
 
-    public static int readInt(InputStream in) throws IOException {
-        return (readByte(in) & 0xFF) |
-                ((readByte(in) & 0xFF) << 8) |
-                ((readByte(in) & 0xFF) << 16) |
-                ((readByte(in) & 0xFF) << 24);
+    public static void writeZigZagVarLong(CcOutput out, long value) throws IOException {
+        out.writeVarLong((value << 1) ^ (value >> 63));
     }
 
-    public static float readVarFloat(InputStream in) throws IOException {
-        return Float.intBitsToFloat(readVarInt(in));
+    public static int readZigZagVarInt(CcInput in) throws IOException {
+        int n = in.readVarInt();
+        return (n >>> 1) ^ -(n & 1);
     }
 
-    public static float readFloat(InputStream in) throws IOException {
-        return Float.intBitsToFloat(readInt(in));
+    public static long readZigZagVarLong(CcInput in) throws IOException {
+        long n = in.readVarLong();
+        return (n >>> 1) ^ -(n & 1);
     }
 
-    public static long readVarLong(InputStream in) throws IOException {
-        long value = 0;
-        int position = 0;
-        long currentByte;
+    public static int readVarInt(CcInput in) throws IOException {
+        return in.readVarInt();
+    }
 
-        while (true) {
-            currentByte = readByte(in);
-            if (currentByte == -1) {
-                throw new EOFException("Unexpected end of stream while reading VarLong");
-            }
-            value |= (currentByte & 0x7F) << position;
-            if ((currentByte & 0x80) == 0) {
-                break;
-            }
-            position += 7;
-            if (position >= 64) {
-                throw new IOException("VarLong is too big");
-            }
-        }
+    public static int readInt(CcInput in) throws IOException {
+        return in.readInt();
+    }
+
+    public static float readVarFloat(CcInput in) throws IOException {
+        return Float.intBitsToFloat(in.readVarInt());
+    }
+
+    public static float readFloat(CcInput in) throws IOException {
+        return Float.intBitsToFloat(in.readInt());
+    }
 
-        return value;
+    public static long readVarLong(CcInput in) throws IOException {
+        return in.readVarLong();
     }
 
-    public static long readLong(InputStream in) throws IOException {
-        return (readByte(in) & 0xFFL) |
-                ((readByte(in) & 0xFFL) << 8) |
-                ((readByte(in) & 0xFFL) << 16) |
-                ((readByte(in) & 0xFFL) << 24) |
-                ((readByte(in) & 0xFFL) << 32) |
-                ((readByte(in) & 0xFFL) << 40) |
-                ((readByte(in) & 0xFFL) << 48) |
-                ((readByte(in) & 0xFFL) << 56);
+    public static long readLong(CcInput in) throws IOException {
+        return in.readLong();
     }
 
-    public static double readVarDouble(InputStream in) throws IOException {
-        return Double.longBitsToDouble(readVarLong(in));
+    public static double readVarDouble(CcInput in) throws IOException {
+        return Double.longBitsToDouble(in.readVarLong());
     }
 
-    public static double readDouble(InputStream in) throws IOException {
-        return Double.longBitsToDouble(readLong(in));
+    public static double readDouble(CcInput in) throws IOException {
+        return Double.longBitsToDouble(in.readLong());
     }
 
 }
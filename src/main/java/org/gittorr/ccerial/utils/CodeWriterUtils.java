@@ -1,5 +1,8 @@
 package org.gittorr.ccerial.utils;
 
+import org.gittorr.ccerial.ArrayEncoding;
+import org.gittorr.ccerial.DeltaEncoding;
+
 import javax.lang.model.element.*;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
@@ -74,7 +77,100 @@ public final class CodeWriterUtils {
     }
 
     public static String readerFor(String typeName, boolean variable, boolean componentVariable, boolean reader) {
+        return readerFor(typeName, variable, componentVariable, reader, false);
+    }
+
+    /**
+     * Returns the method reading or writing an array with the given encoding, or a collection when
+     * {@code typeName} is the component type, or null if the encoding doesn't apply to the type, in which case
+     * it is handled as usual.
+     */
+    public static String readerFor(String typeName, ArrayEncoding encoding, boolean reader) {
         String prefix = reader ? "read" : "write";
+        if (encoding == ArrayEncoding.FRAME_OF_REFERENCE)
+            return typeName.equals("int[]") || typeName.equals("java.lang.Integer") ? prefix + "BitPackedInts" : null;
+        String suffix;
+        switch (typeName) {
+            case "byte[]":
+                suffix = "Bytes";
+                break;
+            case "char[]":
+                suffix = "Chars";
+                break;
+            case "int[]":
+                suffix = "Ints";
+                break;
+            case "long[]":
+                suffix = "Longs";
+                break;
+            case "float[]":
+                suffix = "Floats";
+                break;
+            case "double[]":
+                suffix = "Doubles";
+                break;
+            default:
+                return null;
+        }
+        boolean integral = suffix.equals("Ints") || suffix.equals("Longs");
+        boolean floating = suffix.equals("Floats") || suffix.equals("Doubles");
+        switch (encoding) {
+            case GROUP_VARINT:
+                return integral ? prefix + "GroupVar" + suffix : null;
+            case STREAM_VBYTE:
+                return integral ? prefix + "StreamVByte" + suffix : null;
+            case XOR_FLOAT:
+                return floating ? prefix + "Xor" + suffix : null;
+            case RUN_LENGTH:
+                return prefix + "RunLength" + suffix;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the method reading or writing the deltas of an int or long array, or collection when
+     * {@code typeName} is the component type, or null if there's no delta encoding for the type.
+     */
+    public static String readerFor(String typeName, DeltaEncoding delta, boolean reader) {
+        if (delta == DeltaEncoding.NONE)
+            return null;
+        String suffix;
+        switch (typeName) {
+            case "int[]":
+            case "java.lang.Integer":
+                suffix = "Ints";
+                break;
+            case "long[]":
+            case "java.lang.Long":
+                suffix = "Longs";
+                break;
+            default:
+                return null;
+        }
+        return (reader ? "read" : "write") + (delta == DeltaEncoding.DELTA ? "Delta" : "DeltaOfDelta") + suffix;
+    }
+
+    /**
+     * Same as {@link #readerFor(String, boolean, boolean, boolean)}, but when {@code zigZag} is set the variable size
+     * int and long values, or components of int[] and long[], use the ZigZag varint methods.
+     */
+    public static String readerFor(String typeName, boolean variable, boolean componentVariable, boolean reader, boolean zigZag) {
+        String prefix = reader ? "read" : "write";
+        if (zigZag) {
+            switch (typeName) {
+                case "int":
+                case "java.lang.Integer":
+                    return prefix + "ZigZagVarInt";
+                case "long":
+                case "java.lang.Long":
+                    return prefix + "ZigZagVarLong";
+                case "int[]":
+                    return prefix + "ZigZagVarInts";
+                case "long[]":
+                    return prefix + "ZigZagVarLongs";
+            }
+        }
         switch (typeName) {
             case "byte":
             case "java.lang.Byte":
@@ -122,6 +218,35 @@ public final class CodeWriterUtils {
         return null;
     }
 
+    /**
+     * Returns the owner of a method returned by {@code readerFor}. The raw varint methods are called on the
+     * serializer itself, which switches to ZigZag when {@link org.gittorr.ccerial.SerializerFeature#ZIGZAG_VARINTS}
+     * is enabled, and so are the string methods, for {@link org.gittorr.ccerial.SerializerFeature#STRING_DICTIONARY}.
+     * All the others are static methods of {@link BinaryUtils}.
+     *
+     * @param methodName the method name
+     * @return {@code "this"} or {@code "BinaryUtils"}
+     */
+    public static String ownerOf(String methodName) {
+        if (methodName == null)
+            return "BinaryUtils";
+        switch (methodName) {
+            case "writeVarInt":
+            case "readVarInt":
+            case "writeVarLong":
+            case "readVarLong":
+            case "writeVarInts":
+            case "readVarInts":
+            case "writeVarLongs":
+            case "readVarLongs":
+            case "writeString":
+            case "readString":
+                return "this";
+            default:
+                return "BinaryUtils";
+        }
+    }
+
     public static String getPrimitiveTypeName(TypeKind typeKind) {
         switch (typeKind) {
             case BOOLEAN:
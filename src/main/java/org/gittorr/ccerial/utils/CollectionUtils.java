@@ -1,6 +1,7 @@
 package org.gittorr.ccerial.utils;
 
 import java.util.*;
+import java.util.function.Function;
 
 public class CollectionUtils {
 
@@ -32,6 +33,40 @@ public class CollectionUtils {
         return deque == null ? null : new UnmodifiableDeque<>(deque);
     }
 
+    public static int[] toIntArray(Collection<Integer> c) {
+        if (c == null)
+            return null;
+        int[] is = new int[c.size()];
+        int i = 0;
+        for (Integer v : c)
+            is[i++] = v == null ? 0 : v;
+        return is;
+    }
+
+    public static long[] toLongArray(Collection<Long> c) {
+        if (c == null)
+            return null;
+        long[] ls = new long[c.size()];
+        int i = 0;
+        for (Long v : c)
+            ls[i++] = v == null ? 0L : v;
+        return ls;
+    }
+
+    public static Collection<Integer> toCollection(int[] is, Function<Integer, Collection<Integer>> creator) {
+        Collection<Integer> c = creator.apply(is.length);
+        for (int v : is)
+            c.add(v);
+        return c;
+    }
+
+    public static Collection<Long> toCollection(long[] ls, Function<Integer, Collection<Long>> creator) {
+        Collection<Long> c = creator.apply(ls.length);
+        for (long v : ls)
+            c.add(v);
+        return c;
+    }
+
     // Additional classes for unmodifiable Queue and Deque
     private static class UnmodifiableQueue<E> extends AbstractQueue<E> {
         private final Queue<E> queue;
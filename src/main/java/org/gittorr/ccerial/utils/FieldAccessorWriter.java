@@ -53,9 +53,11 @@ public interface FieldAccessorWriter {
      * @param ccSerializable the ccSerializable
      * @param isRecord       the isRecord
      * @param classElement
+     * @param nestedSerializers the nested serializers of the generated class
      * @throws IOException the IOException
      */
-    void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException;
+    void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement,
+                     NestedSerializers nestedSerializers) throws IOException;
 
     /**
      * Write reader
@@ -66,8 +68,31 @@ public interface FieldAccessorWriter {
      * @param ccSerializable the ccSerializable
      * @param isRecord       the isRecord
      * @param classElement
+     * @param nestedSerializers the nested serializers of the generated class
      * @throws IOException the IOException
      */
-    void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException;
+    default void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement,
+                             NestedSerializers nestedSerializers) throws IOException {
+        writeReader(out, accessorName, fieldEl, ccSerializable, isRecord, classElement, nestedSerializers, null, null);
+    }
+
+    /**
+     * Write reader of a field that may be absent from the input, or whose value is known beforehand, such as a
+     * bit of the flags
+     *
+     * @param out            out
+     * @param accessorName   the accessorName
+     * @param fieldEl        the fieldEl
+     * @param ccSerializable the ccSerializable
+     * @param isRecord       the isRecord
+     * @param classElement
+     * @param nestedSerializers the nested serializers of the generated class
+     * @param presenceBit     the condition telling the field is present, absent constructor arguments are null,
+     *                        or null when the field is always present
+     * @param valueExpression the expression of the value, or null to read it
+     * @throws IOException the IOException
+     */
+    void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement,
+                     NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException;
 
 }
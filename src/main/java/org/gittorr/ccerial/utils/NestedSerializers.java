@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 GitTorr
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * For inquiries, visit https://gittorr.org
+ */
+package org.gittorr.ccerial.utils;
+
+import org.gittorr.ccerial.CcSerializable;
+import org.gittorr.ccerial.CcValue;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Internal class
+ * <p>
+ * The serializers of the nested classes linked by a generated serializer. They are resolved once from the shared
+ * cache of {@link org.gittorr.ccerial.Ccerial} in its constructor and kept in final fields, except for the classes
+ * that link back to the generated one, which are resolved on first use so that building a serializer doesn't
+ * recurse. Serializers are immutable, so the race of two threads resolving the same one is harmless.
+ * </p>
+ */
+public final class NestedSerializers {
+
+    private final TypeElement classElement;
+    // fields by nested class name
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+
+    /**
+     * @param classElement the class whose serializer is generated
+     */
+    public NestedSerializers(TypeElement classElement) {
+        this.classElement = classElement;
+    }
+
+    /**
+     * Returns an expression evaluating to the serializer of the given class, or {@code null} when the class has no
+     * generated serializer or may be subclassed by abstraction (interfaces and abstract classes are resolved at
+     * runtime from the header).
+     *
+     * @param type the nested type
+     * @return the expression, or {@code null}
+     */
+    public String serializerFor(TypeMirror type) {
+        TypeElement typeElement = serializableClassOf(type);
+        if (typeElement == null)
+            return null;
+        if (typeElement.equals(classElement))
+            return "this";
+        return fieldFor(typeElement, false);
+    }
+
+    /**
+     * Returns an expression evaluating to the serializer of the given class writing its header, as the values of
+     * a dynamically typed field are, or {@code null} as {@link #serializerFor(TypeMirror)} does.
+     *
+     * @param type the declared type of the field
+     * @return the expression, or {@code null}
+     */
+    public String headedSerializerFor(TypeMirror type) {
+        TypeElement typeElement = serializableClassOf(type);
+        return typeElement != null ? fieldFor(typeElement, true) : null;
+    }
+
+    private static TypeElement serializableClassOf(TypeMirror type) {
+        if (!(type instanceof DeclaredType) || CodeWriterUtils.isInterfaceOrAbstractClass(type))
+            return null;
+        Element element = ((DeclaredType) type).asElement();
+        if (!(element instanceof TypeElement) || element.getAnnotation(CcSerializable.class) == null)
+            return null;
+        return (TypeElement) element;
+    }
+
+    private String fieldFor(TypeElement typeElement, boolean headers) {
+        String className = typeElement.getQualifiedName().toString();
+        // the class being generated is never resolved in its own constructor, even with other features
+        Field field = fields.computeIfAbsent(className + (headers ? "+headers" : ""), k -> new Field(className,
+                "nestedSerializer" + fields.size(), headers,
+                typeElement.equals(classElement) || links(typeElement, classElement, new HashSet<>())));
+        return field.lazy ? field.name + "()" : field.name;
+    }
+
+    /**
+     * Same as {@link #serializerFor(TypeMirror)} for a class given by name.
+     *
+     * @param className the qualified name of the class
+     * @return the expression, or {@code null}
+     */
+    public String serializerFor(String className) {
+        TypeElement typeElement = CodeWriterUtils.elementUtils.getTypeElement(className);
+        return typeElement != null ? serializerFor(typeElement.asType()) : null;
+    }
+
+    /**
+     * Writes the fields holding the nested serializers, and the accessors of those resolved on first use.
+     *
+     * @param writer the writer of the generated class
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeFields(Writer writer) throws IOException {
+        for (Field field : fields.values()) {
+            String type = (field.headers ? "AbstractSerializer<" : "Serializer<") + field.className + ">";
+            if (!field.lazy) {
+                writer.write("    private final " + type + " " + field.name + ";\n");
+                continue;
+            }
+            writer.write("    private " + type + " " + field.name + ";\n");
+            writer.write("    private " + type + " " + field.name + "() {\n");
+            writer.write("\t\t" + type + " s = " + field.name + ";\n");
+            writer.write("\t\tif (s == null)\n");
+            writer.write("\t\t\t" + field.name + " = s = " + field.lookup("getFeatures()") + ";\n");
+            writer.write("\t\treturn s;\n");
+            writer.write("    }\n");
+        }
+    }
+
+    /**
+     * Writes the statements of the constructor resolving the nested serializers, with its {@code features}.
+     *
+     * @param writer the writer of the generated class
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeInitializers(Writer writer) throws IOException {
+        for (Field field : fields.values()) {
+            if (!field.lazy)
+                writer.write("\t\t" + field.name + " = " + field.lookup("features") + ";\n");
+        }
+    }
+
+    // tells whether the serializer of a class may use the serializer of the target, through the serializable
+    // classes of its fields, in which case resolving it while the target is built would recurse
+    private static boolean links(TypeElement from, TypeElement target, Set<TypeElement> visited) {
+        if (!visited.add(from))
+            return false;
+        for (Element field : from.getEnclosedElements()) {
+            if (field.getKind() != ElementKind.FIELD || field.getModifiers().contains(Modifier.STATIC))
+                continue;
+            CcValue ccValue = field.getAnnotation(CcValue.class);
+            if (ccValue != null && !ccValue.className().isEmpty()) {
+                TypeElement valueClass = CodeWriterUtils.elementUtils.getTypeElement(ccValue.className());
+                if (valueClass != null && linksType(valueClass.asType(), target, visited))
+                    return true;
+            }
+            if (linksType(field.asType(), target, visited))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean linksType(TypeMirror type, TypeElement target, Set<TypeElement> visited) {
+        if (type instanceof ArrayType)
+            return linksType(((ArrayType) type).getComponentType(), target, visited);
+        if (!(type instanceof DeclaredType))
+            return false;
+        for (TypeMirror typeArgument : ((DeclaredType) type).getTypeArguments()) {
+            if (linksType(typeArgument, target, visited))
+                return true;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        if (!(element instanceof TypeElement) || element.getAnnotation(CcSerializable.class) == null
+                || CodeWriterUtils.isInterfaceOrAbstractClass(type))
+            return false;
+        return element.equals(target) || links((TypeElement) element, target, visited);
+    }
+
+    private static final class Field {
+
+        final String className;
+        final String name;
+        final boolean headers;
+        final boolean lazy;
+
+        Field(String className, String name, boolean headers, boolean lazy) {
+            this.className = className;
+            this.name = name;
+            this.headers = headers;
+            this.lazy = lazy;
+        }
+
+        String lookup(String features) {
+            if (headers)
+                return "(AbstractSerializer<" + className + ">) Ccerial.getSerializer(" + className + ".class, BinaryUtils.withHeaders(" + features + "))";
+            return "Ccerial.getSerializer(" + className + ".class, " + features + ")";
+        }
+    }
+
+}
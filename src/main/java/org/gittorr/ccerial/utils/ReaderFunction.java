@@ -17,8 +17,9 @@
  */
 package org.gittorr.ccerial.utils;
 
+import org.gittorr.ccerial.io.CcInput;
+
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
  * Internal class
@@ -27,11 +28,11 @@ import java.io.InputStream;
 public interface ReaderFunction<T> {
 
     /**
-     * Read e value from the input stream
-     * @param in the input stream
+     * Read e value from the input
+     * @param in the input
      * @return return the value
      * @throws IOException if any exception happens
      */
-    T read(InputStream in) throws IOException;
+    T read(CcInput in) throws IOException;
 
 }
@@ -17,9 +17,9 @@
  */
 package org.gittorr.ccerial.utils;
 
+import org.gittorr.ccerial.io.CcOutput;
+
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 
 /**
  * Internal class
@@ -29,10 +29,10 @@ public interface WriterFunction<T> {
 
     /**
      * Write a value
-     * @param out the outputstream
+     * @param out the output
      * @param value the value
      * @throws IOException if any exception happens
      */
-    void write(OutputStream out, T value) throws IOException;
+    void write(CcOutput out, T value) throws IOException;
 
 }
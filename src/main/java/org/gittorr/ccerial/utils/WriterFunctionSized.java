@@ -17,8 +17,9 @@
  */
 package org.gittorr.ccerial.utils;
 
+import org.gittorr.ccerial.io.CcOutput;
+
 import java.io.IOException;
-import java.io.OutputStream;
 
 /**
  * Internal class
@@ -28,10 +29,10 @@ public interface WriterFunctionSized<T> {
 
     /**
      * Write a value
-     * @param out the outputstream
+     * @param out the output
      * @param value the value
      * @throws IOException if any exception happens
      */
-    void write(OutputStream out, T value, int count) throws IOException;
+    void write(CcOutput out, T value, int count) throws IOException;
 
 }
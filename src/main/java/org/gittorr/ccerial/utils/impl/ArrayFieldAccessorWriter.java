@@ -18,10 +18,12 @@
 package org.gittorr.ccerial.utils.impl;
 
 import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.ArrayEncoding;
 import org.gittorr.ccerial.CcArray;
 import org.gittorr.ccerial.CcSerializable;
 import org.gittorr.ccerial.CcValue;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -36,27 +38,38 @@ public class ArrayFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         int variableCount = -1;
         CcArray annotation = CodeWriterUtils.getAnnotation(CcArray.class, fieldEl, accessorName, classElement);
         boolean nullIsEmpty = ccSerializable.nullIsZeroOrEmpty();
         String charset = "UTF-8";
         boolean componentVariable = true;
+        boolean zigZag = false;
         if (annotation != null) {
             variableCount = annotation.count();
             charset = annotation.stringCharsetName();
-            componentVariable = annotation.componentCount() == -1;
+            zigZag = annotation.componentZigZag();
+            componentVariable = annotation.componentCount() == -1 || zigZag;
         }
         String typeName = CodeWriterUtils.getTypeName(fieldEl.asType());
         boolean stringAsWchar = annotation != null && annotation.stringAsCharArray() && typeName.equals("java.lang.String");
         boolean isString = (annotation == null || !annotation.stringAsCharArray()) && typeName.equals("java.lang.String");
-        String writerMethodName = CodeWriterUtils.readerFor(this.typeName, this.variable, componentVariable, false);
-        String writerMethodNameVar = CodeWriterUtils.readerFor(this.typeName, true, true, false);
+        String writerMethodName = CodeWriterUtils.readerFor(this.typeName, this.variable, componentVariable, false, zigZag);
+        String writerMethodNameVar = CodeWriterUtils.readerFor(this.typeName, true, true, false, zigZag);
+        String encodedWriterMethodName = annotation != null ? CodeWriterUtils.readerFor(this.typeName, annotation.delta(), false) : null;
+        if (encodedWriterMethodName == null && annotation != null)
+            encodedWriterMethodName = CodeWriterUtils.readerFor(this.typeName, annotation.encoding(), false);
+        if (encodedWriterMethodName != null)
+            writerMethodName = writerMethodNameVar = encodedWriterMethodName;
+        String runLengthMethodName = encodedWriterMethodName == null ? CodeWriterUtils.readerFor(this.typeName, ArrayEncoding.RUN_LENGTH, false) : null;
         String template = "\t\t" +
+                "<if(runLengthMethodName)>" +
+                    "if (featureRunLengthArrays) BinaryUtils.<runLengthMethodName>(out, obj.<accessorName>, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>);\n\t\telse " +
+                "<endif>" +
                 "<if(!variable && !isString)>" +
-                    "writeWithFeature(BinaryUtils::<writerMethodNameVar>, BinaryUtils::<writerMethodName>, " +
+                    "writeWithFeature(<writerMethodNameVarOwner>::<writerMethodNameVar>, <writerMethodNameOwner>::<writerMethodName>, " +
                 "<else>" +
-                    "BinaryUtils.<writerMethodName>(" +
+                    "<writerMethodNameOwner>.<writerMethodName>(" +
                 "<endif>" +
                 "out, obj.<accessorName><if(stringAsWchar)>.toCharArray()<endif>, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>" +
                 "<if(isString)>, \"<charset>\"<endif>);\n";
@@ -71,12 +84,15 @@ public class ArrayFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("typeName", typeName);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("writerMethodName", stringAsWchar ? "writeChars" : writerMethodName);
+        st.add("writerMethodNameOwner", CodeWriterUtils.ownerOf(stringAsWchar ? "writeChars" : writerMethodName));
         st.add("writerMethodNameVar", stringAsWchar ? "writeChars" : writerMethodNameVar);
+        st.add("writerMethodNameVarOwner", CodeWriterUtils.ownerOf(stringAsWchar ? "writeChars" : writerMethodNameVar));
+        st.add("runLengthMethodName", runLengthMethodName);
         out.write(st.render());
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         int variableCount = -1;
         boolean nullIsEmpty = ccSerializable.nullIsZeroOrEmpty();
         boolean variable = this.variable;
@@ -85,33 +101,46 @@ public class ArrayFieldAccessorWriter extends AbstractFieldAccessorWriter {
         String ctorArgName = toCtorArgName(accessorName, isRecord);
         String setterName = toSetterName(accessorName, isRecord);
         boolean componentVariable = true;
+        boolean zigZag = false;
         if (annotation != null) {
             variableCount = annotation.count();
             variable = annotation.count() == -1;
             nullIsEmpty = annotation.nullIsEmpty();
             charset = annotation.stringCharsetName();
-            componentVariable = annotation.componentCount() == -1;
+            zigZag = annotation.componentZigZag();
+            componentVariable = annotation.componentCount() == -1 || zigZag;
         }
         String typeName = CodeWriterUtils.getTypeName(fieldEl.asType());
         boolean stringAsWchar = annotation != null && annotation.stringAsCharArray() && typeName.equals("java.lang.String");
         boolean isString = (annotation == null || !annotation.stringAsCharArray()) && typeName.equals("java.lang.String");
         String template = "\t\t" +
-                "<if(ctor)><typeName> <ctorArgName> = <else>obj.<setterName>(<endif>" +
+                "<if(ctor)><typeName> <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif><else>obj.<setterName>(<endif>" +
+                "<if(value)><value><else>" +
                 "<if(variable)>nullIfEmptyOrZero(<endif>" +
                 "<if(isString)>" +
                     "<if(stringAsWchar)>new String(<endif>" +
-                    "BinaryUtils.<readerMethodName>(in, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>, \"<charset>\")" +
+                    "<readerMethodNameOwner>.<readerMethodName>(in, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>, \"<charset>\")" +
                     "<if(stringAsWchar)>)<endif>" +
                 "<else>" +
+                    "<if(runLengthMethodName)>" +
+                        "featureRunLengthArrays ? BinaryUtils.<runLengthMethodName>(in, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>) : " +
+                    "<endif>" +
                     "<if(!variable)>" +
-                        "featureForceVariableSize ? BinaryUtils.<readerMethodNameVar>(in, -1) :" +
+                        "featureForceVariableSize ? <readerMethodNameVarOwner>.<readerMethodNameVar>(in, -1) :" +
                     "<endif>" +
-                    "BinaryUtils.<readerMethodName>(in, <variableCount>)" +
+                    "<readerMethodNameOwner>.<readerMethodName>(in, <variableCount>)" +
                 "<endif>"+
                 "<if(variable)>, <nullIsEmpty>)<endif>" +
+                "<endif>" +
                 "<if(!ctor)>)<endif>;\n";
-        String readerMethodName = CodeWriterUtils.readerFor(this.typeName, this.variable, componentVariable, true);
-        String readerMethodNameVar = CodeWriterUtils.readerFor(this.typeName, true, true, true);
+        String readerMethodName = CodeWriterUtils.readerFor(this.typeName, this.variable, componentVariable, true, zigZag);
+        String readerMethodNameVar = CodeWriterUtils.readerFor(this.typeName, true, true, true, zigZag);
+        String encodedReaderMethodName = annotation != null ? CodeWriterUtils.readerFor(this.typeName, annotation.delta(), true) : null;
+        if (encodedReaderMethodName == null && annotation != null)
+            encodedReaderMethodName = CodeWriterUtils.readerFor(this.typeName, annotation.encoding(), true);
+        if (encodedReaderMethodName != null)
+            readerMethodName = readerMethodNameVar = encodedReaderMethodName;
+        String runLengthMethodName = encodedReaderMethodName == null ? CodeWriterUtils.readerFor(this.typeName, ArrayEncoding.RUN_LENGTH, true) : null;
         ST st = new ST(template);
         st.add("variable", variable);
         st.add("nullIsEmpty", nullIsEmpty);
@@ -125,7 +154,12 @@ public class ArrayFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("setterName", setterName);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("readerMethodName", stringAsWchar ? "readChars" : readerMethodName);
+        st.add("readerMethodNameOwner", CodeWriterUtils.ownerOf(stringAsWchar ? "readChars" : readerMethodName));
         st.add("readerMethodNameVar", stringAsWchar ? "readChars" : readerMethodNameVar);
+        st.add("readerMethodNameVarOwner", CodeWriterUtils.ownerOf(stringAsWchar ? "readChars" : readerMethodNameVar));
+        st.add("runLengthMethodName", runLengthMethodName);
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
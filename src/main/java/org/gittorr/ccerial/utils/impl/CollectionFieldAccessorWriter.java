@@ -21,6 +21,7 @@ import org.gittorr.ccerial.AccessorType;
 import org.gittorr.ccerial.CcArray;
 import org.gittorr.ccerial.CcSerializable;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -39,46 +40,58 @@ public class CollectionFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         int variableCount = -1;
         CcArray annotation = CodeWriterUtils.getAnnotation(CcArray.class, fieldEl, accessorName, classElement);
         String charset = "UTF-8";
         TypeMirror collectionImpl = CodeWriterUtils.fromClass(Collection.class);
         boolean unmodifiable = false;
         int componentCount = -1;
+        boolean zigZag = false;
         if (annotation != null) {
             variableCount = annotation.count();
             charset = annotation.stringCharsetName();
             collectionImpl = CodeWriterUtils.getTypeMirror(annotation.collectionImpl());
             unmodifiable = annotation.unmodifiableCollection();
             componentCount = annotation.componentCount();
+            zigZag = annotation.componentZigZag();
+            if (zigZag)
+                componentCount = -1;
         }
         String typeName = CodeWriterUtils.getTypeName(fieldEl.asType());
 
         TypeMirror componentType = CodeWriterUtils.getCollectionComponentType(fieldEl.asType());
-        String writerMethodName = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), componentCount == -1, false);
-        String writerMethodNameVar = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), true, false);
+        String writerMethodName = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), componentCount == -1, false, false, zigZag);
+        String writerMethodNameVar = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), true, false, false, zigZag);
         boolean isObject = writerMethodName == null;
         writerMethodName = writerMethodName != null ? writerMethodName : "writeObject";
+        String encodedWriterMethodName = annotation != null ? CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), annotation.delta(), false) : null;
+        if (encodedWriterMethodName == null && annotation != null)
+            encodedWriterMethodName = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), annotation.encoding(), false);
         boolean componentIsString = componentType.toString().equals("java.lang.String");
         TypeMirror collectionClass = findSuitableImplementation(collectionImpl, fieldEl.asType(), componentType);
         String componentClass = CodeWriterUtils.isInterfaceOrAbstractClass(componentType) ? "null" : (CodeWriterUtils.getTypeName(componentType) + ".class");
         String collectionCtor = getCollectionCtor(collectionClass);
         String template = """
+                        <if(encodedWriterMethodName)>
+                        BinaryUtils.<encodedWriterMethodName>(out, obj.<accessorName>, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>);
+                        <else>
                         BinaryUtils.writeCollection(out,obj.<accessorName>, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>,
                         <if(isObject)>
-                            (out2, v) -> BinaryUtils.<writerMethodName>(out2, v, <componentClass>, this)
+                            <if(nestedSerializer)>(out2, v) -> BinaryUtils.writeObject(out2, v, <nestedSerializer>)
+                            <else>(out2, v) -> <writerMethodNameOwner>.<writerMethodName>(out2, v, <componentClass>, this)<endif>
                         <else>
                             <if(componentVariable)>
-                                <if(componentIsString)>(out2, v) -> BinaryUtils.<writerMethodName>(out2, v, <componentCount>, "<charset>")
-                                <else>BinaryUtils::<writerMethodName><endif>
+                                <if(componentIsString)>(out2, v) -> <writerMethodNameOwner>.<writerMethodName>(out2, v, <componentCount>, "<charset>")
+                                <else><writerMethodNameOwner>::<writerMethodName><endif>
                             <else>
                                 (out2, v) -> 
-                                    <if(componentIsString)>BinaryUtils.<writerMethodName>(out2, v, <componentCount>, "<charset>")
-                                    <else>writeWithFeature(BinaryUtils::<writerMethodNameVar>, BinaryUtils::<writerMethodName>,out2, v)
+                                    <if(componentIsString)><writerMethodNameOwner>.<writerMethodName>(out2, v, <componentCount>, "<charset>")
+                                    <else>writeWithFeature(<writerMethodNameVarOwner>::<writerMethodNameVar>, <writerMethodNameOwner>::<writerMethodName>,out2, v)
                                     <endif>
                             <endif>
                         <endif>);
+                        <endif>
                 """;
         ST st = new ST(template);
         st.add("variable", variable);
@@ -89,17 +102,21 @@ public class CollectionFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("componentCount", componentCount);
         st.add("componentVariable", componentCount == -1);
         st.add("componentClass", componentClass);
+        st.add("nestedSerializer", isObject ? nestedSerializers.serializerFor(componentType) : null);
         st.add("unmodifiable", unmodifiable);
         st.add("typeName", typeName);
         st.add("collectionCtor", collectionCtor);
         st.add("writerMethodName", writerMethodName);
+        st.add("writerMethodNameOwner", CodeWriterUtils.ownerOf(writerMethodName));
         st.add("writerMethodNameVar", writerMethodNameVar);
+        st.add("writerMethodNameVarOwner", CodeWriterUtils.ownerOf(writerMethodNameVar));
         st.add("isObject", isObject);
+        st.add("encodedWriterMethodName", encodedWriterMethodName);
         out.write(st.render());
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         int variableCount = -1;
         String charset = "UTF-8";
         boolean variable = this.variable;
@@ -110,6 +127,7 @@ public class CollectionFieldAccessorWriter extends AbstractFieldAccessorWriter {
         TypeMirror collectionImpl = CodeWriterUtils.fromClass(Collection.class);
         boolean unmodifiable = false;
         int componentCount = -1;
+        boolean zigZag = false;
         if (annotation != null) {
             nullIsEmpty = annotation.nullIsEmpty();
             variable = annotation.count() == -1;
@@ -118,36 +136,49 @@ public class CollectionFieldAccessorWriter extends AbstractFieldAccessorWriter {
             collectionImpl = CodeWriterUtils.getTypeMirror(annotation.collectionImpl());
             unmodifiable = annotation.unmodifiableCollection();
             componentCount = annotation.componentCount();
+            zigZag = annotation.componentZigZag();
+            if (zigZag)
+                componentCount = -1;
         }
         String typeName = CodeWriterUtils.getTypeName(fieldEl.asType());
         TypeMirror componentType = CodeWriterUtils.getCollectionComponentType(fieldEl.asType());
-        String readerMethodName = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), componentCount == -1, true);
-        String readerMethodNameVar = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), true, true);
+        String readerMethodName = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), componentCount == -1, false, true, zigZag);
+        String readerMethodNameVar = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), true, false, true, zigZag);
         boolean isObject = readerMethodName == null;
         readerMethodName = readerMethodName != null ? readerMethodName : "readObject";
+        String encodedReaderMethodName = annotation != null ? CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), annotation.delta(), true) : null;
+        if (encodedReaderMethodName == null && annotation != null)
+            encodedReaderMethodName = CodeWriterUtils.readerFor(CodeWriterUtils.getTypeName(componentType), annotation.encoding(), true);
 
         String componentClass = CodeWriterUtils.isInterfaceOrAbstractClass(componentType) ? "null" : (CodeWriterUtils.getTypeName(componentType) + ".class");
         boolean componentIsString = componentType.toString().equals("java.lang.String");
         TypeMirror collectionClass = findSuitableImplementation(collectionImpl, fieldEl.asType(), componentType);
         String collectionCtor = getCollectionCtor(collectionClass);
         String template = """
-                        <if(ctor)><typeName> <ctorArgName> = <else>obj.<setterName>(<endif>
+                        <if(ctor)><typeName> <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif><else>obj.<setterName>(<endif>
+                            <if(value)><value><else>
                             <if(unmodifiable)>CollectionUtils.makeUnmodifiable(<endif>
                             <if(variable)>nullIfEmptyOrZero(<endif>
+                            <if(encodedReaderMethodName)>
+                            (<typeName>)BinaryUtils.<encodedReaderMethodName>(in, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>, <collectionCtor>)
+                            <else>
                             (<typeName>)BinaryUtils.readCollection(in, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>, 
                             <if(isObject)>
-                                (in2) -> BinaryUtils.<readerMethodName>(in2, <componentClass>, this)
+                                <if(nestedSerializer)>(in2) -> BinaryUtils.readObject(in2, <nestedSerializer>)
+                                <else>(in2) -> <readerMethodNameOwner>.<readerMethodName>(in2, <componentClass>, this)<endif>
                             <else>
                                 <if(componentVariable)>
-                                    <if(componentIsString)>(in2) -> BinaryUtils.<readerMethodName>(in2, <componentCount>, "<charset>")
-                                    <else>BinaryUtils::<readerMethodName><endif>  
+                                    <if(componentIsString)>(in2) -> <readerMethodNameOwner>.<readerMethodName>(in2, <componentCount>, "<charset>")
+                                    <else><readerMethodNameOwner>::<readerMethodName><endif>  
                                 <else>
                                     (in2) -> 
-                                        <if(componentIsString)>BinaryUtils.<readerMethodName>(in2, featureForceVariableSize ? -1 : <componentCount>, "<charset>")
-                                        <else>featureForceVariableSize ? BinaryUtils.<readerMethodNameVar>(in2) : BinaryUtils.<readerMethodName>(in2)<endif>
+                                        <if(componentIsString)><readerMethodNameOwner>.<readerMethodName>(in2, featureForceVariableSize ? -1 : <componentCount>, "<charset>")
+                                        <else>featureForceVariableSize ? <readerMethodNameVarOwner>.<readerMethodNameVar>(in2) : <readerMethodNameOwner>.<readerMethodName>(in2)<endif>
                                 <endif>
-                            <endif>, <collectionCtor>)<if(variable)>, <nullIsEmpty>)<endif>
+                            <endif>, <collectionCtor>)
+                            <endif><if(variable)>, <nullIsEmpty>)<endif>
                             <if(unmodifiable)>)<endif>
+                            <endif>
                         <if(!ctor)>)<endif>;
                 """;
         ST st = new ST(template);
@@ -160,6 +191,7 @@ public class CollectionFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("componentCount", componentCount);
         st.add("componentVariable", componentCount == -1);
         st.add("componentClass", componentClass);
+        st.add("nestedSerializer", isObject ? nestedSerializers.serializerFor(componentType) : null);
         st.add("unmodifiable", unmodifiable);
         st.add("typeName", typeName);
         st.add("collectionCtor", collectionCtor);
@@ -167,8 +199,13 @@ public class CollectionFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("setterName", setterName);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("readerMethodName", readerMethodName);
+        st.add("readerMethodNameOwner", CodeWriterUtils.ownerOf(readerMethodName));
         st.add("readerMethodNameVar", readerMethodNameVar);
+        st.add("readerMethodNameVarOwner", CodeWriterUtils.ownerOf(readerMethodNameVar));
         st.add("isObject", isObject);
+        st.add("encodedReaderMethodName", encodedReaderMethodName);
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
@@ -21,6 +21,7 @@ import org.gittorr.ccerial.AccessorType;
 import org.gittorr.ccerial.CcMap;
 import org.gittorr.ccerial.CcSerializable;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -43,7 +44,7 @@ public class MapFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         int variableCount = -1;
         int keyCount = -1;
         int valueCount = -1;
@@ -80,28 +81,28 @@ public class MapFieldAccessorWriter extends AbstractFieldAccessorWriter {
         String template = """
                         BinaryUtils.writeMap(out, obj.<accessorName>, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>,
                         <if(keyIsObject)>
-                            (out2, v) -> BinaryUtils.<keyWriterMethodName>(out2, v, <keyClass>, this)
+                            (out2, v) -> <keyWriterMethodNameOwner>.<keyWriterMethodName>(out2, v, <keyClass>, this)
                         <else>
                             <if(keyVariable)>
-                                <if(keyIsString)>(out2, v) -> BinaryUtils.<keyWriterMethodName>(out2, v, <keyCount>, "<charset>")
-                                <else>BinaryUtils::<keyWriterMethodName><endif>
+                                <if(keyIsString)>(out2, v) -> <keyWriterMethodNameOwner>.<keyWriterMethodName>(out2, v, <keyCount>, "<charset>")
+                                <else><keyWriterMethodNameOwner>::<keyWriterMethodName><endif>
                             <else>
                                 (out2, v) ->
-                                    <if(keyIsString)>BinaryUtils.<keyWriterMethodName>(out2, v, <keyCount>, "<charset>")
-                                    <else>writeWithFeature(BinaryUtils::<keyWriterMethodNameVar>, BinaryUtils::<keyWriterMethodName>,out2, v)
+                                    <if(keyIsString)><keyWriterMethodNameOwner>.<keyWriterMethodName>(out2, v, <keyCount>, "<charset>")
+                                    <else>writeWithFeature(<keyWriterMethodNameVarOwner>::<keyWriterMethodNameVar>, <keyWriterMethodNameOwner>::<keyWriterMethodName>,out2, v)
                                     <endif>
                             <endif>
                         <endif>,
                         <if(valueIsObject)>
-                            (out2, v) -> BinaryUtils.<valueWriterMethodName>(out2, v, <valueClass>, this)
+                            (out2, v) -> <valueWriterMethodNameOwner>.<valueWriterMethodName>(out2, v, <valueClass>, this)
                         <else>
                             <if(valueVariable)>
-                                <if(valueIsString)>(out2, v) -> BinaryUtils.<valueWriterMethodName>(out2, v, <valueCount>, "<charset>")
-                                <else>BinaryUtils::<valueWriterMethodName><endif>
+                                <if(valueIsString)>(out2, v) -> <valueWriterMethodNameOwner>.<valueWriterMethodName>(out2, v, <valueCount>, "<charset>")
+                                <else><valueWriterMethodNameOwner>::<valueWriterMethodName><endif>
                             <else>
                                 (out2, v) ->
-                                    <if(valueIsString)>BinaryUtils.<valueWriterMethodName>(out2, v, <valueCount>, "<charset>")
-                                    <else>writeWithFeature(BinaryUtils::<valueWriterMethodNameVar>, BinaryUtils::<valueWriterMethodName>,out2, v)
+                                    <if(valueIsString)><valueWriterMethodNameOwner>.<valueWriterMethodName>(out2, v, <valueCount>, "<charset>")
+                                    <else>writeWithFeature(<valueWriterMethodNameVarOwner>::<valueWriterMethodNameVar>, <valueWriterMethodNameOwner>::<valueWriterMethodName>,out2, v)
                                     <endif>
                             <endif>
                         <endif>);
@@ -123,16 +124,20 @@ public class MapFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("typeName", typeName);
         st.add("mapCtor", mapCtor);
         st.add("keyWriterMethodName", keyWriterMethodName);
+        st.add("keyWriterMethodNameOwner", CodeWriterUtils.ownerOf(keyWriterMethodName));
         st.add("keyWriterMethodNameVar", keyWriterMethodNameVar);
+        st.add("keyWriterMethodNameVarOwner", CodeWriterUtils.ownerOf(keyWriterMethodNameVar));
         st.add("valueWriterMethodName", valueWriterMethodName);
+        st.add("valueWriterMethodNameOwner", CodeWriterUtils.ownerOf(valueWriterMethodName));
         st.add("valueWriterMethodNameVar", valueWriterMethodNameVar);
+        st.add("valueWriterMethodNameVarOwner", CodeWriterUtils.ownerOf(valueWriterMethodNameVar));
         st.add("keyIsObject", keyIsObject);
         st.add("valueIsObject", valueIsObject);
         out.write(st.render());
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         int variableCount = -1;
         int keyCount = -1;
         int valueCount = -1;
@@ -171,36 +176,38 @@ public class MapFieldAccessorWriter extends AbstractFieldAccessorWriter {
         String valueClass = CodeWriterUtils.isInterfaceOrAbstractClass(valueType) ? "null" : (CodeWriterUtils.getTypeName(valueType) + ".class");
         String mapCtor = getCollectionCtor(mapClass);
         String template = """
-                        <if(ctor)><typeName> <ctorArgName> = <else>obj.<setterName>(<endif>
+                        <if(ctor)><typeName> <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif><else>obj.<setterName>(<endif>
+                            <if(value)><value><else>
                             <if(unmodifiable)>CollectionUtils.makeUnmodifiable(<endif>
                             <if(variable)>nullIfEmptyOrZero(<endif>
                             (<typeName>)BinaryUtils.readMap(in, <if(!variable)>featureForceVariableSize ? -1 : <endif><variableCount>,
                             <if(keyIsObject)>
-                                (in2) -> BinaryUtils.<keyReaderMethodName>(in2, <kClass>, this)
+                                (in2) -> <keyReaderMethodNameOwner>.<keyReaderMethodName>(in2, <kClass>, this)
                             <else>
                                 <if(keyVariable)>
-                                    <if(keyIsString)>(in2) -> BinaryUtils.<keyReaderMethodName>(in2, <keyCount>, "<charset>")
-                                    <else>BinaryUtils::<keyReaderMethodName><endif>
+                                    <if(keyIsString)>(in2) -> <keyReaderMethodNameOwner>.<keyReaderMethodName>(in2, <keyCount>, "<charset>")
+                                    <else><keyReaderMethodNameOwner>::<keyReaderMethodName><endif>
                                 <else>
                                     (in2) ->
-                                        <if(keyIsString)>BinaryUtils.<keyReaderMethodName>(in2, featureForceVariableSize ? -1 : <keyCount>, "<charset>")
-                                        <else>featureForceVariableSize ? BinaryUtils.<keyReaderMethodNameVar>(in2) : BinaryUtils.<keyReaderMethodName>(in2)<endif>
+                                        <if(keyIsString)><keyReaderMethodNameOwner>.<keyReaderMethodName>(in2, featureForceVariableSize ? -1 : <keyCount>, "<charset>")
+                                        <else>featureForceVariableSize ? <keyReaderMethodNameVarOwner>.<keyReaderMethodNameVar>(in2) : <keyReaderMethodNameOwner>.<keyReaderMethodName>(in2)<endif>
                                 <endif>
                             <endif>,
                             <if(valueIsObject)>
-                                (in2) -> BinaryUtils.<valueReaderMethodName>(in2, <valueClass>, this)
+                                (in2) -> <valueReaderMethodNameOwner>.<valueReaderMethodName>(in2, <valueClass>, this)
                             <else>
                                 <if(valueVariable)>
-                                    <if(valueIsString)>(in2) -> BinaryUtils.<valueReaderMethodName>(in2, <valueCount>, "<charset>")
-                                    <else>BinaryUtils::<valueReaderMethodName><endif>
+                                    <if(valueIsString)>(in2) -> <valueReaderMethodNameOwner>.<valueReaderMethodName>(in2, <valueCount>, "<charset>")
+                                    <else><valueReaderMethodNameOwner>::<valueReaderMethodName><endif>
                                 <else>
                                     (in2) ->
-                                        <if(valueIsString)>BinaryUtils.<valueReaderMethodName>(in2, featureForceVariableSize ? -1 : <valueCount>, "<charset>")
-                                        <else>featureForceVariableSize ? BinaryUtils.<valueReaderMethodNameVar>(in2) : BinaryUtils.<valueReaderMethodName>(in2)<endif>
+                                        <if(valueIsString)><valueReaderMethodNameOwner>.<valueReaderMethodName>(in2, featureForceVariableSize ? -1 : <valueCount>, "<charset>")
+                                        <else>featureForceVariableSize ? <valueReaderMethodNameVarOwner>.<valueReaderMethodNameVar>(in2) : <valueReaderMethodNameOwner>.<valueReaderMethodName>(in2)<endif>
                                 <endif>
                             <endif>,
                             <mapCtor>)<if(variable)>, <nullIsEmpty>)<endif>
                             <if(unmodifiable)>)<endif>
+                            <endif>
                         <if(!ctor)>)<endif>;
                 """;
         ST st = new ST(template);
@@ -224,11 +231,17 @@ public class MapFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("setterName", setterName);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("keyReaderMethodName", keyReaderMethodName);
+        st.add("keyReaderMethodNameOwner", CodeWriterUtils.ownerOf(keyReaderMethodName));
         st.add("keyReaderMethodNameVar", keyReaderMethodNameVar);
+        st.add("keyReaderMethodNameVarOwner", CodeWriterUtils.ownerOf(keyReaderMethodNameVar));
         st.add("valueReaderMethodName", valueReaderMethodName);
+        st.add("valueReaderMethodNameOwner", CodeWriterUtils.ownerOf(valueReaderMethodName));
         st.add("valueReaderMethodNameVar", valueReaderMethodNameVar);
+        st.add("valueReaderMethodNameVarOwner", CodeWriterUtils.ownerOf(valueReaderMethodNameVar));
         st.add("keyIsObject", keyIsObject);
         st.add("valueIsObject", valueIsObject);
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
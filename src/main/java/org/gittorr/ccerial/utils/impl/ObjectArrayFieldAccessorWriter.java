@@ -22,6 +22,7 @@ import org.gittorr.ccerial.CcArray;
 import org.gittorr.ccerial.CcSerializable;
 import org.gittorr.ccerial.CcValue;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -38,7 +39,7 @@ public class ObjectArrayFieldAccessorWriter extends AbstractFieldAccessorWriter
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         int variableCount = -1;
         CcArray annotation = CodeWriterUtils.getAnnotation(CcArray.class, fieldEl, accessorName, classElement);
         String charset = "UTF-8";
@@ -59,21 +60,22 @@ public class ObjectArrayFieldAccessorWriter extends AbstractFieldAccessorWriter
         String template = "\t\tBinaryUtils.writeGenericArray(out, obj.<accessorName>, <variableCount>, " +
                 "<if(isArray)>" +
                     "(out2, v) -> " +
-                        "<if(!variable)>writeWithFeature(BinaryUtils::<writerMethodNameVar>, BinaryUtils::<writerMethodName>, " +
-                        "<else>BinaryUtils.<writerMethodName>(" +
+                        "<if(!variable)>writeWithFeature(<writerMethodNameVarOwner>::<writerMethodNameVar>, <writerMethodNameOwner>::<writerMethodName>, " +
+                        "<else><writerMethodNameOwner>.<writerMethodName>(" +
                         "<endif>" +
                         "out2, v, <componentCount>)"+
                 "<else>" +
                     "<if(isObject)>" +
-                        "(out2, v) -> BinaryUtils.writeObject(out2, v, <componentClass>, this)" +
+                        "<if(nestedSerializer)>(out2, v) -> BinaryUtils.writeObject(out2, v, <nestedSerializer>)" +
+                        "<else>(out2, v) -> BinaryUtils.writeObject(out2, v, <componentClass>, this)<endif>" +
                     "<else>"+
                         "<if(stringArray)>BinaryUtils.createStringWriter(<if(!variable)>featureForceVariableSize ? -1 : <endif><componentCount>, \"<charset>\")" +
                         "<else>" +
                             "(out2, v) -> " +
                             "<if(!variable)>" +
-                                "writeWithFeature(BinaryUtils::<writerMethodNameVar>, BinaryUtils::<writerMethodName>, " +
+                                "writeWithFeature(<writerMethodNameVarOwner>::<writerMethodNameVar>, <writerMethodNameOwner>::<writerMethodName>, " +
                             "<else>" +
-                                "BinaryUtils.<writerMethodName>(" +
+                                "<writerMethodNameOwner>.<writerMethodName>(" +
                             "<endif>" +
                             "out2, v)" +
                         "<endif>" +
@@ -89,14 +91,17 @@ public class ObjectArrayFieldAccessorWriter extends AbstractFieldAccessorWriter
         st.add("isArray", isArray);
         st.add("typeName", typeName);
         st.add("writerMethodName", writerMethodName);
+        st.add("writerMethodNameOwner", CodeWriterUtils.ownerOf(writerMethodName));
         st.add("writerMethodNameVar", writerMethodNameVar);
+        st.add("writerMethodNameVarOwner", CodeWriterUtils.ownerOf(writerMethodNameVar));
         st.add("componentCount", componentCount);
         st.add("componentClass", componentClass);
+        st.add("nestedSerializer", isObject ? nestedSerializers.serializerFor(componentType) : null);
         out.write(st.render());
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         int variableCount = -1;
         boolean nullIsEmpty = ccSerializable.nullIsZeroOrEmpty();
         boolean variable = this.variable;
@@ -120,27 +125,30 @@ public class ObjectArrayFieldAccessorWriter extends AbstractFieldAccessorWriter
         boolean isObject = readerMethodName == null;
         boolean isArray  = CodeWriterUtils.isArray(componentType);
         boolean stringArray = typeName.equals("java.lang.String");
-        String template = "\t\t<if(ctor)><typeName>[] <ctorArgName> = <else>obj.<setterName>(<endif>" +
+        String template = "\t\t<if(ctor)><typeName>[] <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif><else>obj.<setterName>(<endif>" +
+                "<if(value)><value><else>" +
                 "<if(variable)>nullIfEmptyOrZero(<endif>" +
                 "BinaryUtils.readGenericArray(in, <variableCount>, " +
                 "<if(isArray)>" +
-                    "(in2) -> <if(!variable)>featureForceVariableSize ? BinaryUtils.<readerMethodNameVar>(in2, -1) : <endif>BinaryUtils.<readerMethodName>(in2, <componentCount>)" +
+                    "(in2) -> <if(!variable)>featureForceVariableSize ? <readerMethodNameVarOwner>.<readerMethodNameVar>(in2, -1) : <endif><readerMethodNameOwner>.<readerMethodName>(in2, <componentCount>)" +
                 "<else>" +
                     "<if(isObject)>" +
-                        "(in2) -> BinaryUtils.readObject(in2, <componentClass>, this)" +
+                        "<if(nestedSerializer)>(in2) -> BinaryUtils.readObject(in2, <nestedSerializer>)" +
+                        "<else>(in2) -> BinaryUtils.readObject(in2, <componentClass>, this)<endif>" +
                     "<else>" +
-                        "<if(stringArray)>in1 -> BinaryUtils.<readerMethodName>(in1, <if(!variable)>featureForceVariableSize ? -1 : <endif><componentCount>, \"<charset>\")" +
+                        "<if(stringArray)>in1 -> <readerMethodNameOwner>.<readerMethodName>(in1, <if(!variable)>featureForceVariableSize ? -1 : <endif><componentCount>, \"<charset>\")" +
                         "<else>" +
                             "(in2) -> " +
                             "<if(!variable)>" +
-                                "featureForceVariableSize ? BinaryUtils.<readerMethodNameVar>(in2) :" +
+                                "featureForceVariableSize ? <readerMethodNameVarOwner>.<readerMethodNameVar>(in2) :" +
                             "<endif>" +
-                            "BinaryUtils.<readerMethodName>(in2)" +
+                            "<readerMethodNameOwner>.<readerMethodName>(in2)" +
                         "<endif>" +
                     "<endif>" +
                 "<endif>, " +
                 "<typeName>[]::new)" +
                 "<if(variable)>, <nullIsEmpty>)<endif>" +
+                "<endif>" +
                 "<if(!ctor)>)<endif>;\n";
         ST st = new ST(template);
         st.add("variable", variable);
@@ -156,9 +164,14 @@ public class ObjectArrayFieldAccessorWriter extends AbstractFieldAccessorWriter
         st.add("setterName", setterName);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("readerMethodName", readerMethodName);
+        st.add("readerMethodNameOwner", CodeWriterUtils.ownerOf(readerMethodName));
         st.add("readerMethodNameVar", readerMethodNameVar);
+        st.add("readerMethodNameVarOwner", CodeWriterUtils.ownerOf(readerMethodNameVar));
         st.add("componentCount", componentCount);
         st.add("componentClass", componentClass);
+        st.add("nestedSerializer", isObject ? nestedSerializers.serializerFor(componentType) : null);
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
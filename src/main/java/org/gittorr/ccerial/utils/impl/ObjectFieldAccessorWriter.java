@@ -21,6 +21,7 @@ import org.gittorr.ccerial.AccessorType;
 import org.gittorr.ccerial.CcSerializable;
 import org.gittorr.ccerial.CcValue;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -35,7 +36,7 @@ public class ObjectFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         CcValue annotation = CodeWriterUtils.getAnnotation(CcValue.class, fieldEl, accessorName, classElement);
         boolean variable = this.variable;
         String className = null;
@@ -44,9 +45,14 @@ public class ObjectFieldAccessorWriter extends AbstractFieldAccessorWriter {
             className = annotation.className();
         }
         boolean dynamic = className == null || className.isEmpty();
-        String template = "\t\tBinaryUtils.writeObject(out, obj.<accessorName>, <if(dynamic)>null<else><className>.class<endif>, this);\n";
+        String nestedSerializer = dynamic ? null : nestedSerializers.serializerFor(className);
+        String headedSerializer = dynamic ? nestedSerializers.headedSerializerFor(fieldEl.asType()) : null;
+        String template = "\t\tBinaryUtils.<if(headedSerializer)>writeDynamicObject<else>writeObject<endif>(out, obj.<accessorName>, " +
+                "<if(nestedSerializer)><nestedSerializer><elseif(headedSerializer)><headedSerializer>, this<elseif(dynamic)>null, this<else><className>.class, this<endif>);\n";
         ST st = new ST(template);
         st.add("dynamic", dynamic);
+        st.add("headedSerializer", headedSerializer);
+        st.add("nestedSerializer", nestedSerializer);
         st.add("accessorName", accessorName);
         st.add("className", className);
 
@@ -54,7 +60,7 @@ public class ObjectFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         CcValue annotation = CodeWriterUtils.getAnnotation(CcValue.class, fieldEl, accessorName, classElement);
         String ctorArgName = toCtorArgName(accessorName, isRecord);
         String setterName = toSetterName(accessorName, isRecord);
@@ -66,8 +72,12 @@ public class ObjectFieldAccessorWriter extends AbstractFieldAccessorWriter {
         }
         String typeName = CodeWriterUtils.getTypeName(fieldEl.asType());
         boolean dynamic = className == null || className.isEmpty();
-        String template = "\t\t<if(ctor)><typeName> <ctorArgName> = <else>obj.<setterName>(<endif>" +
-                "BinaryUtils.readObject(in, <if(dynamic)>null<else><className>.class<endif>, this)" +
+        String nestedSerializer = dynamic ? null : nestedSerializers.serializerFor(className);
+        String headedSerializer = dynamic ? nestedSerializers.headedSerializerFor(fieldEl.asType()) : null;
+        String template = "\t\t<if(ctor)><typeName> <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif><else>obj.<setterName>(<endif>" +
+                "<if(value)><value>" +
+                "<elseif(headedSerializer)>BinaryUtils.readDynamicObject(in, <headedSerializer>, this)" +
+                "<else>BinaryUtils.readObject(in, <if(nestedSerializer)><nestedSerializer><elseif(dynamic)>null, this<else><className>.class, this<endif>)<endif>" +
                 "<if(!ctor)>)<endif>;\n";
         ST st = new ST(template);
         st.add("variable", variable);
@@ -77,7 +87,11 @@ public class ObjectFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("ctorArgName", ctorArgName);
         st.add("setterName", setterName);
         st.add("dynamic", dynamic);
+        st.add("nestedSerializer", nestedSerializer);
+        st.add("headedSerializer", headedSerializer);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
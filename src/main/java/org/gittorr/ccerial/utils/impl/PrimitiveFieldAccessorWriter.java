@@ -21,6 +21,7 @@ import org.gittorr.ccerial.AccessorType;
 import org.gittorr.ccerial.CcSerializable;
 import org.gittorr.ccerial.CcValue;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -36,22 +37,24 @@ public class PrimitiveFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         CcValue valueAnnot = CodeWriterUtils.getAnnotation(CcValue.class, fieldEl, accessorName, classElement);
         boolean variable = this.variable;
+        boolean zigZag = false;
         if (valueAnnot != null) {
-            variable = valueAnnot.variableSize();
+            zigZag = valueAnnot.zigZag();
+            variable = valueAnnot.variableSize() || zigZag;
         }
         TypeMirror type = fieldEl.asType();
         TypeMirror boxedType = CodeWriterUtils.wrapperFor(type);
-        String writerMethodName = CodeWriterUtils.readerFor(this.typeName, variable, false);
+        String writerMethodName = CodeWriterUtils.readerFor(this.typeName, variable, false, false, zigZag);
         String writerMethodNameVar = CodeWriterUtils.readerFor(this.typeName, true, false);
         //
         String template = "\t\t" +
                 "<if(!variable)>" +
-                    "writeWithFeature(BinaryUtils::<writerMethodNameVar>, BinaryUtils::<writerMethodName>, " +
+                    "writeWithFeature(<writerMethodNameVarOwner>::<writerMethodNameVar>, <writerMethodNameOwner>::<writerMethodName>, " +
                 "<else>" +
-                    "BinaryUtils.<writerMethodName>(" +
+                    "<writerMethodNameOwner>.<writerMethodName>(" +
                 "<endif>" +
                 "out, " +
                 "<if(!isPrimitive)>BinaryUtils.zeroIfNull(obj.<accessorName>)<else>obj.<accessorName><endif>" +
@@ -62,18 +65,22 @@ public class PrimitiveFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("typeName", typeName);
         st.add("boxedType", boxedType.toString());
         st.add("writerMethodName", writerMethodName);
+        st.add("writerMethodNameOwner", CodeWriterUtils.ownerOf(writerMethodName));
         st.add("isPrimitive", type.getKind().isPrimitive());
         st.add("writerMethodNameVar", writerMethodNameVar);
+        st.add("writerMethodNameVarOwner", CodeWriterUtils.ownerOf(writerMethodNameVar));
         out.write(st.render());
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         CcValue valueAnnot = CodeWriterUtils.getAnnotation(CcValue.class, fieldEl, accessorName, classElement);
         boolean variable = this.variable;
         boolean nullIsZeroOrEmpty = ccSerializable.nullIsZeroOrEmpty();
+        boolean zigZag = false;
         if (valueAnnot != null) {
-            variable = valueAnnot.variableSize();
+            zigZag = valueAnnot.zigZag();
+            variable = valueAnnot.variableSize() || zigZag;
             nullIsZeroOrEmpty = valueAnnot.nullIsZeroOrEmpty();
         }
         String ctorArgName = toCtorArgName(accessorName, isRecord);
@@ -81,18 +88,20 @@ public class PrimitiveFieldAccessorWriter extends AbstractFieldAccessorWriter {
         TypeMirror type = fieldEl.asType();
         String typeName = CodeWriterUtils.getTypeName(type);
         String template = "\t\t<if(ctor)>" +
-                            "<typeName> <ctorArgName> = " +
+                            "<typeName> <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif>" +
                           "<else>" +
                             "obj.<setterName>(" +
                           "<endif>" +
+                          "<if(value)><value><else>" +
                           "<if(!isPrimitive)>nullIfEmptyOrZero(<endif>" +
                               "<if(!variable)>" +
-                                "featureForceVariableSize ? BinaryUtils.<readerMethodNameVar>(in) :" +
+                                "featureForceVariableSize ? <readerMethodNameVarOwner>.<readerMethodNameVar>(in) :" +
                               "<endif>" +
-                              "BinaryUtils.<readerMethodName>(in)" +
+                              "<readerMethodNameOwner>.<readerMethodName>(in)" +
                           "<if(!isPrimitive)>, <nullIsZeroOrEmpty>)<endif>" +
+                          "<endif>" +
                           "<if(!ctor)>)<endif>;\n";
-        String readerMethodName = CodeWriterUtils.readerFor(this.typeName, variable, true);
+        String readerMethodName = CodeWriterUtils.readerFor(this.typeName, variable, false, true, zigZag);
         String readerMethodNameVar = CodeWriterUtils.readerFor(this.typeName, true, true);
         ST st = new ST(template);
         st.add("variable", variable);
@@ -103,8 +112,12 @@ public class PrimitiveFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("setterName", setterName);
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("readerMethodName", readerMethodName);
+        st.add("readerMethodNameOwner", CodeWriterUtils.ownerOf(readerMethodName));
         st.add("isPrimitive", type.getKind().isPrimitive());
         st.add("readerMethodNameVar", readerMethodNameVar);
+        st.add("readerMethodNameVarOwner", CodeWriterUtils.ownerOf(readerMethodNameVar));
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
@@ -19,6 +19,7 @@ package org.gittorr.ccerial.utils.impl;
 
 import org.gittorr.ccerial.*;
 import org.gittorr.ccerial.utils.CodeWriterUtils;
+import org.gittorr.ccerial.utils.NestedSerializers;
 import org.stringtemplate.v4.ST;
 
 import javax.lang.model.element.Element;
@@ -33,7 +34,7 @@ public class SimpleEnumFieldAccessorWriter extends AbstractFieldAccessorWriter {
     }
 
     @Override
-    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeWriter(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers) throws IOException {
         EnumType value = EnumType.ORDINAL;
         int count = this.variable ? -1 : 0;
         String stringCharsetName = "UTF-8";
@@ -51,7 +52,7 @@ public class SimpleEnumFieldAccessorWriter extends AbstractFieldAccessorWriter {
 
         String typeName = value == EnumType.ORDINAL ? "int" : (stringAsCharArray ? "char[]" : "java.lang.String");
 
-        String template = "\t\tBinaryUtils.<writerMethodName>(out, obj.<accessorName><if(isString)>.name()<if(stringAsCharArray)>.toCharArray()<endif>," +
+        String template = "\t\t<writerMethodNameOwner>.<writerMethodName>(out, obj.<accessorName><if(isString)>.name()<if(stringAsCharArray)>.toCharArray()<endif>," +
                 " <count><if(!stringAsCharArray)>, \"<charset>\"<endif><else>.ordinal()<endif>);\n";
         String writerMethodName = CodeWriterUtils.readerFor(typeName, variable, false);
 
@@ -63,11 +64,13 @@ public class SimpleEnumFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("isString", value == EnumType.STRING);
         st.add("stringAsCharArray", stringAsCharArray);
         st.add("writerMethodName", writerMethodName);
+        // the strings go through the serializer for the dictionary, the ordinals stay plain varints
+        st.add("writerMethodNameOwner", value == EnumType.STRING ? CodeWriterUtils.ownerOf(writerMethodName) : "BinaryUtils");
         out.write(st.render());
     }
 
     @Override
-    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement) throws IOException {
+    public void writeReader(Writer out, String accessorName, Element fieldEl, CcSerializable ccSerializable, boolean isRecord, Element classElement, NestedSerializers nestedSerializers, String presenceBit, String valueExpression) throws IOException {
         EnumType value = EnumType.ORDINAL;
         int count = this.variable ? -1 : 0;
         boolean nullIsEmpty = ccSerializable.nullIsZeroOrEmpty();
@@ -91,18 +94,20 @@ public class SimpleEnumFieldAccessorWriter extends AbstractFieldAccessorWriter {
         String typeName = value == EnumType.ORDINAL ? "int" : (stringAsCharArray ? "char[]" : "java.lang.String");
 
         String template = "\t\t" +
-                "<if(ctor)><typeName> <ctorArgName> = <else>obj.<setterName>(<endif>" +
+                "<if(ctor)><typeName> <ctorArgName> = <if(presenceBit)>(<presenceBit>) == 0 ? null : <endif><else>obj.<setterName>(<endif>" +
+                "<if(value)><value><else>" +
                 "<if(isString)>" +
                     "<if(variable)>nullIfEmptyOrZero(<typeName>::valueOf,<else><typeName>.valueOf(<endif>" +
                 "<else><typeName>.values()[<endif>" +
                 "<if(isString)>" +
                     "<if(stringAsCharArray)>new String(<endif>" +
-                    "BinaryUtils.<readerMethodName>(in, <count><if(!stringAsCharArray)>, \"<charset>\"<endif>)" +
+                    "<readerMethodNameOwner>.<readerMethodName>(in, <count><if(!stringAsCharArray)>, \"<charset>\"<endif>)" +
                     "<if(stringAsCharArray)>)<endif>" +
                     "<if(variable)>, <nullIsEmpty>)<else>)<endif>" +
                 "<else>" +
                     "<if(!variable)>featureForceVariableSize ? BinaryUtils.<readerMethodNameVar>(in) : <endif>BinaryUtils.<readerMethodName>(in)]" +
                 "<endif>" +
+                "<endif>" +
                 "<if(!ctor)>)<endif>;\n";
         String readerMethodName = CodeWriterUtils.readerFor(typeName, variable, true);
         String readerMethodNameVar = CodeWriterUtils.readerFor(typeName, true, true);
@@ -119,7 +124,10 @@ public class SimpleEnumFieldAccessorWriter extends AbstractFieldAccessorWriter {
         st.add("ctor", ccSerializable.accessorType() == AccessorType.CONSTRUCTOR);
         st.add("stringAsCharArray", stringAsCharArray);
         st.add("readerMethodName", readerMethodName);
+        st.add("readerMethodNameOwner", value == EnumType.STRING ? CodeWriterUtils.ownerOf(readerMethodName) : "BinaryUtils");
         st.add("readerMethodNameVar", readerMethodNameVar);
+        st.add("presenceBit", presenceBit);
+        st.add("value", valueExpression);
         out.write(st.render());
     }
 
@@ -17,13 +17,22 @@
  */
 package org.gittorr.ccerial;
 
+import org.gittorr.ccerial.processor.CcerialProcessor;
 import org.junit.Test;
 
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class CcerialProcessorTest {
@@ -45,6 +54,32 @@ public class CcerialProcessorTest {
         testGeneratedCodeFor(generatedFilePath, "public org.gittorr.ccerial.TestClassRecord deserialize");
     }
 
+    @Test
+    public void testClassIdentifierCollision() throws Exception {
+        Path output = Files.createTempDirectory("ccerial");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                List.of("-d", output.toString(), "-s", output.toString(), "-classpath", System.getProperty("java.class.path")),
+                null, List.of(source("First"), source("Second")));
+        task.setProcessors(List.of(new CcerialProcessor()));
+        assertFalse("Colliding class identifiers must fail the build", task.call());
+        assertTrue(diagnostics.getDiagnostics().stream().anyMatch(d -> d.getMessage(null).contains("collides with")));
+    }
+
+    private static JavaFileObject source(String className) {
+        String code = "package collision;\n"
+                + "@org.gittorr.ccerial.CcSerializable(classIdentifier = 7)\n"
+                + "public class " + className + " { private int value; "
+                + "public int getValue() { return value; } public void setValue(int value) { this.value = value; } }\n";
+        return new SimpleJavaFileObject(URI.create("string:///collision/" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
     private static void testGeneratedCodeFor(Path generatedFilePath, String deserializeMethodSignature) throws IOException {
         // Check if the generated file exists
         assertTrue("The generated file was not found!", Files.exists(generatedFilePath));
@@ -0,0 +1,43 @@
+package org.gittorr.ccerial;
+
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ObjectIdTableTest {
+
+    private static SerializerRegistry registry(int oid, Class<?> forClass) {
+        return new SerializerRegistry() {
+            @Override
+            public int[] objectIds() {
+                return new int[]{oid};
+            }
+
+            @Override
+            public String[] classNames() {
+                return new String[]{forClass.getName()};
+            }
+
+            @Override
+            public Class<?> classFor(int objectId) {
+                return objectId == oid ? forClass : null;
+            }
+        };
+    }
+
+    @Test
+    public void testLookup() {
+        ObjectIdTable table = new ObjectIdTable(List.of(registry(-5, Customer.class), registry(11, Customer.class)));
+        Assert.assertSame(Ccerial.getSerializer(Customer.class), table.get(-5).get(0));
+        Assert.assertSame(table.get(-5), table.get(11));
+        Assert.assertThrows(IllegalArgumentException.class, () -> table.get(12));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCollision() {
+        new ObjectIdTable(List.of(registry(3, Customer.class), registry(3, String.class)));
+    }
+
+}
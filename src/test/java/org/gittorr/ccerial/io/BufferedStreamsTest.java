@@ -0,0 +1,107 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.variable.arrays.StatisticsData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class BufferedStreamsTest {
+
+    @Test
+    public void testSequentialRecords() throws IOException {
+        Serializer<Customer> serializer = Ccerial.getSerializer(Customer.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; i++) {
+            serializer.serialize(bos, new Customer("Name" + i, "Last" + i, i, i * 1.5));
+        }
+        Assert.assertEquals(72 * 1000, bos.size());
+
+        // mark supported, the stream must stay positioned after each record
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        for (int i = 0; i < 1000; i++) {
+            Customer customer = serializer.deserialize(in);
+            Assert.assertEquals("Name" + i, customer.getName());
+            Assert.assertEquals(i, customer.getAge());
+        }
+        Assert.assertEquals(-1, in.read());
+
+        // mark not supported
+        in = new FilterInputStream(new ByteArrayInputStream(bos.toByteArray())) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals("Last" + i, serializer.deserialize(in).getLastName());
+        }
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testSharedOutput() throws IOException {
+        Serializer<StatisticsData> serializer = Ccerial.getSerializer(StatisticsData.class);
+        int[] scores = new int[20000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = i * 31;
+        }
+        StatisticsData data = new StatisticsData(new String[]{"a", "b"}, scores);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        CcOutput out = CcOutput.of(bos);
+        serializer.serialize(out, data);
+        serializer.serialize(out, data);
+        out.flush();
+        Assert.assertEquals(bos.size(), out.position());
+
+        CcInput in = CcInput.of(new ByteArrayInputStream(bos.toByteArray()));
+        for (int i = 0; i < 2; i++) {
+            StatisticsData back = serializer.deserialize(in);
+            Assert.assertArrayEquals(scores, back.getScores());
+            Assert.assertArrayEquals(new String[]{"a", "b"}, back.getNames());
+        }
+        Assert.assertEquals(bos.size(), in.position());
+    }
+
+    @Test
+    public void testSmallCallBuffers() throws IOException {
+        Serializer<StatisticsData> serializer = Ccerial.getSerializer(StatisticsData.class);
+        int[] scores = new int[5000];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = i * 31;
+        }
+        StatisticsData data = new StatisticsData(new String[]{"a", "b"}, scores);
+        int[] writes = new int[1];
+        ByteArrayOutputStream bos = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writes[0]++;
+                super.write(b, off, len);
+            }
+        };
+        serializer.serialize(bos, data);
+        bos.write(42);
+        Assert.assertEquals(serializer.toBytes(data).length + 1, bos.size());
+        Assert.assertTrue(writes[0] <= bos.size() / CcOutput.SMALL_BUFFER_SIZE + 2);
+
+        // nothing reported as available, the read-ahead falls back to the small buffer
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(bos.toByteArray())) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        };
+        Assert.assertArrayEquals(scores, serializer.deserialize(in).getScores());
+        Assert.assertEquals(42, in.read());
+    }
+
+}
@@ -0,0 +1,54 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.variable.arrays.StatisticsData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+
+public class ByteArrayTest {
+
+    private static final Customer CUSTOMER = new Customer("Joe", "Maltson", 32, 102.44);
+
+    @Test
+    public void testToBytes() throws IOException {
+        Serializer<Customer> serializer = Ccerial.getSerializer(Customer.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serialize(bos, CUSTOMER);
+        byte[] bytes = serializer.toBytes(CUSTOMER);
+        Assert.assertArrayEquals(bos.toByteArray(), bytes);
+        Customer back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals("Joe", back.getName());
+    }
+
+    @Test
+    public void testConcatenatedRecords() throws IOException {
+        Serializer<StatisticsData> serializer = Ccerial.getSerializer(StatisticsData.class);
+        byte[] dst = new byte[256];
+        int offset = 5;
+        for (int i = 0; i < 3; i++) {
+            StatisticsData data = new StatisticsData(new String[]{"s" + i}, new int[]{i, i * 1000});
+            offset += serializer.serialize(data, dst, offset);
+        }
+
+        CcInput in = CcInput.of(dst, 5, offset - 5);
+        for (int i = 0; i < 3; i++) {
+            StatisticsData back = serializer.deserialize(in);
+            Assert.assertEquals("s" + i, back.getNames()[0]);
+            Assert.assertEquals(i * 1000, back.getScores()[1]);
+        }
+        Assert.assertEquals(offset - 5, in.position());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testOverflow() throws IOException {
+        Serializer<Customer> serializer = Ccerial.getSerializer(Customer.class);
+        serializer.serialize(CUSTOMER, new byte[80], 10);
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.nested.objects.CustomerOrder;
+import org.gittorr.ccerial.nested.objects.OrderItem;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class ByteBufferTest {
+
+    private static final Customer CUSTOMER = new Customer("Joe", "Maltson", 32, 102.44);
+
+    @Test
+    public void testHeapBuffer() throws IOException {
+        testBuffer(ByteBuffer.allocate(1024));
+    }
+
+    @Test
+    public void testDirectBuffer() throws IOException {
+        testBuffer(ByteBuffer.allocateDirect(1024));
+    }
+
+    private void testBuffer(ByteBuffer buffer) throws IOException {
+        Serializer<Customer> serializer = Ccerial.getSerializer(Customer.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serialize(bos, CUSTOMER);
+        byte[] expected = bos.toByteArray();
+
+        buffer.position(3);
+        serializer.serialize(buffer, CUSTOMER);
+        serializer.serialize(buffer, CUSTOMER);
+        Assert.assertEquals(3 + expected.length * 2, buffer.position());
+
+        byte[] written = new byte[expected.length];
+        buffer.get(3, written);
+        Assert.assertArrayEquals(expected, written);
+
+        buffer.flip().position(3);
+        for (int i = 0; i < 2; i++) {
+            Customer back = serializer.deserialize(buffer);
+            Assert.assertEquals("Maltson", back.getLastName());
+            Assert.assertEquals(102.44, back.getBalance(), 0d);
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testNestedObjects() throws IOException {
+        CustomerOrder co = new CustomerOrder(23.7, List.of(new OrderItem("Bread", 4.45, 5)), CUSTOMER);
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        serializer.serialize(buffer, co);
+        buffer.flip();
+        CustomerOrder back = serializer.deserialize(buffer);
+        Assert.assertEquals("Bread", back.getItems().get(0).getDescription());
+        Assert.assertEquals("Joe", back.getCustomer().getName());
+    }
+
+}
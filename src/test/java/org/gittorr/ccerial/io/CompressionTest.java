@@ -0,0 +1,100 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.nested.objects.CustomerOrder;
+import org.gittorr.ccerial.nested.objects.OrderItem;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+public class CompressionTest {
+
+    private static CustomerOrder order(int i) {
+        return new CustomerOrder(i * 1.5, List.of(new OrderItem("Bread", 4.45, i % 7), new OrderItem("Milk", 1.45, 1)),
+                new Customer("Joe" + i % 10, "Maltson", 32, 102.44));
+    }
+
+    private static byte[] roundTrip(byte[] data, int blockSize) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (CompressedOutputStream out = new CompressedOutputStream(bos, blockSize)) {
+            out.write(data, 0, data.length);
+        }
+        byte[] compressed = bos.toByteArray();
+        byte[] back = new CompressedInputStream(new ByteArrayInputStream(compressed)).readAllBytes();
+        Assert.assertArrayEquals(data, back);
+        return compressed;
+    }
+
+    @Test
+    public void testRecords() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (CcOutput out = CcOutput.ofCompressed(bos)) {
+            for (int i = 0; i < 5000; i++)
+                serializer.serialize(out, order(i));
+        }
+        Assert.assertTrue(bos.size() < 5000 * serializer.toBytes(order(0)).length / 4);
+
+        CcInput in = CcInput.ofCompressed(new ByteArrayInputStream(bos.toByteArray()));
+        for (int i = 0; i < 5000; i++) {
+            CustomerOrder order = serializer.deserialize(in);
+            Assert.assertEquals(i * 1.5, order.getTotal(), 0d);
+            Assert.assertEquals(i % 7, order.getItems().get(0).getAmount(), 0d);
+            Assert.assertEquals("Joe" + i % 10, order.getCustomer().getName());
+        }
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testIncompressibleBlocks() throws IOException {
+        byte[] data = new byte[200_000];
+        new Random(7).nextBytes(data);
+        byte[] compressed = roundTrip(data, CompressedOutputStream.DEFAULT_BLOCK_SIZE);
+        // stored raw, with a header per block
+        Assert.assertEquals(data.length + 4 * CompressedOutputStream.FRAME_HEADER_SIZE, compressed.length);
+    }
+
+    @Test
+    public void testRunsAndLongMatches() throws IOException {
+        Random random = new Random(11);
+        byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; ) {
+            int kind = random.nextInt(3);
+            int length = Math.min(data.length - i, 1 + random.nextInt(kind == 0 ? 20 : 2000));
+            if (kind == 1) {
+                // a run, the match overlaps what it produces
+                byte b = (byte) random.nextInt();
+                for (int k = 0; k < length; k++)
+                    data[i + k] = b;
+            } else if (kind == 2 && i > 3000) {
+                System.arraycopy(data, i - 1 - random.nextInt(3000), data, i, Math.min(length, 1000));
+                length = Math.min(length, 1000);
+            } else {
+                for (int k = 0; k < length; k++)
+                    data[i + k] = (byte) random.nextInt();
+            }
+            i += length;
+        }
+        Assert.assertTrue(roundTrip(data, 4096).length < data.length / 2);
+        roundTrip(data, 70_000);
+        roundTrip(new byte[0], 1024);
+        roundTrip(new byte[]{1, 2, 3}, 1024);
+        roundTrip(new byte[1 << 20], CompressedOutputStream.DEFAULT_BLOCK_SIZE);
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptedBlock() throws IOException {
+        byte[] compressed = roundTrip(new byte[10_000], 1024);
+        // more literals than the block holds
+        compressed[CompressedOutputStream.FRAME_HEADER_SIZE] = (byte) 0xF0;
+        new CompressedInputStream(new ByteArrayInputStream(compressed)).readAllBytes();
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.nested.objects.CustomerOrder;
+import org.gittorr.ccerial.nested.objects.OrderItem;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelCompressionTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final int BLOCK_SIZE = 4096;
+    private static final int COUNT = 20_000;
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static CustomerOrder order(int i) {
+        return new CustomerOrder(i, List.of(new OrderItem("Item" + i % 100, 4.45, i % 7)),
+                new Customer("Joe" + i % 10, "Maltson", 32, 102.44));
+    }
+
+    private static byte[] write(CompressedOutputStream out, ByteArrayOutputStream bos) throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        try (out) {
+            for (int i = 0; i < COUNT; i++)
+                out.writeRecord(serializer, order(i));
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] writeParallel() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        return write(new ParallelCompressedOutputStream(bos, BLOCK_SIZE, POOL, 8), bos);
+    }
+
+    @Test
+    public void testSameAsSequential() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Assert.assertArrayEquals(write(new CompressedOutputStream(bos, BLOCK_SIZE), bos), writeParallel());
+    }
+
+    @Test
+    public void testParallelRead() throws IOException {
+        byte[] bytes = writeParallel();
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        CcInput in = CcInput.of(new ParallelCompressedInputStream(new ByteArrayInputStream(bytes), POOL, 8));
+        for (int i = 0; i < COUNT; i++) {
+            CustomerOrder order = serializer.deserialize(in);
+            Assert.assertEquals(i, order.getTotal(), 0d);
+            Assert.assertEquals("Item" + i % 100, order.getItems().get(0).getDescription());
+        }
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testBlocksOnRecordBoundaries() throws IOException {
+        byte[] bytes = writeParallel();
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        int i = 0;
+        int blocks = 0;
+        for (int p = 0; p < bytes.length; blocks++) {
+            int rawLength = CompressedInputStream.readIntLE(bytes, p);
+            int storedLength = CompressedInputStream.readIntLE(bytes, p + 4);
+            Assert.assertTrue(rawLength <= BLOCK_SIZE);
+            byte[] raw = new byte[rawLength];
+            LzBlockCodec.decompress(bytes, p + CompressedOutputStream.FRAME_HEADER_SIZE, storedLength, raw, 0, rawLength);
+            // every block holds whole records
+            CcInput in = CcInput.of(raw, 0, rawLength);
+            while (in.position() < rawLength)
+                Assert.assertEquals(i++, serializer.deserialize(in).getTotal(), 0d);
+            p += CompressedOutputStream.FRAME_HEADER_SIZE + storedLength;
+        }
+        Assert.assertEquals(COUNT, i);
+        Assert.assertTrue(blocks > 10);
+    }
+
+}
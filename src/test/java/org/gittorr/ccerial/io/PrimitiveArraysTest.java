@@ -0,0 +1,88 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.utils.BinaryUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class PrimitiveArraysTest {
+
+    private static final Random RANDOM = new Random(42);
+
+    private final int[] ints = RANDOM.ints(1001).toArray();
+    private final long[] longs = RANDOM.longs(777).toArray();
+    private final double[] doubles = RANDOM.doubles(513).toArray();
+    private final float[] floats = {1.5f, -2.25f, Float.MAX_VALUE, Float.MIN_VALUE, 0f};
+    private final char[] chars = "bulk primitive arrays".toCharArray();
+
+    private void writeAll(CcOutput out) throws IOException {
+        BinaryUtils.writeInts(out, ints, -1);
+        BinaryUtils.writeLongs(out, longs, -1);
+        BinaryUtils.writeDoubles(out, doubles, -1);
+        BinaryUtils.writeFloats(out, floats, 8);
+        BinaryUtils.writeChars(out, chars, 30);
+        BinaryUtils.writeInts(out, null, 3);
+        out.flushBuffer();
+    }
+
+    private byte[] reference() throws IOException {
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        out.writeVarInt(ints.length);
+        for (int i : ints) out.writeInt(i);
+        out.writeVarInt(longs.length);
+        for (long l : longs) out.writeLong(l);
+        out.writeVarInt(doubles.length);
+        for (double d : doubles) out.writeLong(Double.doubleToLongBits(d));
+        for (int i = 0; i < 8; i++) out.writeInt(Float.floatToRawIntBits(i < floats.length ? floats[i] : 0f));
+        for (int i = 0; i < 30; i++) out.writeShort(i < chars.length ? chars[i] : 0);
+        out.writeZeros(12);
+        return out.toByteArray();
+    }
+
+    private void readAll(CcInput in) throws IOException {
+        Assert.assertArrayEquals(ints, BinaryUtils.readInts(in, -1));
+        Assert.assertArrayEquals(longs, BinaryUtils.readLongs(in, -1));
+        Assert.assertArrayEquals(doubles, BinaryUtils.readDoubles(in, -1), 0d);
+        float[] fs = BinaryUtils.readFloats(in, 8);
+        Assert.assertEquals(Float.MIN_VALUE, fs[3], 0f);
+        Assert.assertEquals(0f, fs[7], 0f);
+        Assert.assertEquals("bulk primitive arrays", new String(BinaryUtils.readChars(in, 30)).trim());
+        Assert.assertArrayEquals(new int[3], BinaryUtils.readInts(in, 3));
+    }
+
+    @Test
+    public void testByteArray() throws IOException {
+        ByteArrayCcOutput out = new ByteArrayCcOutput(16);
+        writeAll(out);
+        byte[] bytes = out.toByteArray();
+        Assert.assertArrayEquals(reference(), bytes);
+        readAll(new ByteArrayCcInput(bytes));
+    }
+
+    @Test
+    public void testSmallStreamBuffers() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writeAll(new ByteArrayCcOutput(bos, 20));
+        Assert.assertArrayEquals(reference(), bos.toByteArray());
+        readAll(new ByteArrayCcInput(new FilterInputStream(new ByteArrayInputStream(bos.toByteArray())) { }, 20));
+        readAll(new ByteArrayCcInput(new ByteArrayInputStream(bos.toByteArray()), 20));
+    }
+
+    @Test
+    public void testByteBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32 * 1024);
+        writeAll(CcOutput.of(buffer));
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        Assert.assertArrayEquals(reference(), bytes);
+        readAll(CcInput.of(buffer));
+    }
+
+}
@@ -0,0 +1,150 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.nested.objects.CustomerOrder;
+import org.gittorr.ccerial.nested.objects.OrderItem;
+import org.gittorr.ccerial.nested.polymorphic.Circle;
+import org.gittorr.ccerial.nested.polymorphic.Shape;
+import org.gittorr.ccerial.nested.polymorphic.Square;
+import org.gittorr.ccerial.utils.AbstractSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+public class RecordStreamTest {
+
+    private static CustomerOrder order(int i) {
+        return new CustomerOrder(i * 1.5, List.of(new OrderItem("Bread", 4.45, i % 7)),
+                new Customer("Joe" + i % 10, "Maltson", 32, 102.44));
+    }
+
+    private static byte[] writeOrders(Serializer<CustomerOrder> serializer, int count) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (RecordWriter<CustomerOrder> writer = new RecordWriter<>(bos, serializer)) {
+            for (int i = 0; i < count; i++)
+                writer.write(order(i));
+            Assert.assertEquals(count, writer.count());
+        }
+        return bos.toByteArray();
+    }
+
+    @Test
+    public void testIterator() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        byte[] data = writeOrders(serializer, 1000);
+        int size = 0;
+        for (int i = 0; i < 1000; i++)
+            size += 1 + serializer.toBytes(order(i)).length;
+        Assert.assertEquals(size, data.length);
+
+        try (RecordReader<CustomerOrder> reader = new RecordReader<>(new ByteArrayInputStream(data), serializer)) {
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertTrue(reader.hasNext());
+                CustomerOrder order = reader.next();
+                Assert.assertEquals(i * 1.5, order.getTotal(), 0d);
+                Assert.assertEquals("Joe" + i % 10, order.getCustomer().getName());
+            }
+            Assert.assertFalse(reader.hasNext());
+            Assert.assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class, SerializerFeature.STRING_DICTIONARY);
+        byte[] data = writeOrders(serializer, 100);
+
+        try (RecordReader<CustomerOrder> reader = new RecordReader<>(new ByteArrayInputStream(data), serializer)) {
+            for (int i = 0; i < 100; i += 2) {
+                Assert.assertTrue(reader.skip());
+                Assert.assertEquals((i + 1) * 1.5, reader.read().getTotal(), 0d);
+            }
+            Assert.assertFalse(reader.skip());
+        }
+    }
+
+    @Test
+    public void testFileChannel() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        Path file = Files.createTempFile("records", ".bin");
+        try {
+            Files.write(file, writeOrders(serializer, 20000));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try (Stream<CustomerOrder> orders = new RecordReader<>(channel, serializer).stream()) {
+                Assert.assertEquals(20000 * 19999 / 2 * 1.5, orders.mapToDouble(CustomerOrder::getTotal).sum(), 0d);
+            }
+            Assert.assertFalse(channel.isOpen());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testClassIds() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (RecordWriter<Object> writer = RecordWriter.withClassIds(bos)) {
+            for (int i = 0; i < 10; i++)
+                writer.write(i % 2 == 0 ? new Circle(i) : new Square(i));
+        }
+
+        int circleId = ((AbstractSerializer<?>) Ccerial.getSerializer(Circle.class)).getObjectId();
+        try (RecordReader<Object> reader = RecordReader.withClassIds(new ByteArrayInputStream(bos.toByteArray()))) {
+            double area = 0;
+            while (reader.hasNext()) {
+                if (reader.nextObjectId() == circleId)
+                    reader.skip();
+                else
+                    area += ((Shape) reader.next()).area();
+            }
+            Assert.assertEquals(1 + 9 + 25 + 49 + 81, area, 0d);
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        byte[] data = writeOrders(serializer, 2);
+        RecordReader<CustomerOrder> reader = new RecordReader<>(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)), serializer);
+        reader.next();
+        Assert.assertThrows(UncheckedIOException.class, reader::next);
+    }
+
+    @Test
+    public void testCorruptedLength() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        byte[] data = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 1, 2, 3};
+        RecordReader<CustomerOrder> reader = new RecordReader<>(new ByteArrayInputStream(data), serializer);
+        Assert.assertThrows(IOException.class, reader::read);
+        reader = new RecordReader<>(new ByteArrayInputStream(data), serializer);
+        Assert.assertThrows(IOException.class, reader::skip);
+
+        reader = new RecordReader<>(new ByteArrayInputStream(writeOrders(serializer, 1)), serializer, 16);
+        Assert.assertThrows(IOException.class, reader::read);
+    }
+
+    @Test
+    public void testTruncatedSkip() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        byte[] data = writeOrders(serializer, 2);
+        RecordReader<CustomerOrder> reader = new RecordReader<>(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)), serializer);
+        Assert.assertTrue(reader.skip());
+        Assert.assertThrows(EOFException.class, reader::skip);
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.gittorr.ccerial.io;
+
+import org.gittorr.ccerial.utils.BinaryUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class VarIntsTest {
+
+    private static final Random RANDOM = new Random(7);
+
+    // mixes runs of single byte values with values of every length
+    private final int[] ints = RANDOM.ints(2000).map(i -> i >> RANDOM.nextInt(32)).toArray();
+    private final long[] longs = RANDOM.longs(2000).map(l -> l >>> RANDOM.nextInt(64)).toArray();
+
+    private byte[] encoded() throws IOException {
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        for (int i : ints) out.writeVarInt(i);
+        for (long l : longs) out.writeVarLong(l);
+        out.writeVarInt(-1);
+        out.writeVarLong(Long.MIN_VALUE);
+        return out.toByteArray();
+    }
+
+    private void assertDecoded(CcInput in) throws IOException {
+        int[] is = new int[ints.length];
+        in.readVarInts(is, 0, is.length);
+        Assert.assertArrayEquals(ints, is);
+        long[] ls = new long[longs.length];
+        in.readVarLongs(ls, 0, ls.length);
+        Assert.assertArrayEquals(longs, ls);
+        Assert.assertEquals(-1, in.readVarInt());
+        Assert.assertEquals(Long.MIN_VALUE, in.readVarLong());
+    }
+
+    @Test
+    public void testBulkVarInts() throws IOException {
+        byte[] bytes = encoded();
+        assertDecoded(CcInput.of(bytes, 0, bytes.length));
+        assertDecoded(CcInput.of(ByteBuffer.wrap(bytes)));
+        assertDecoded(CcInput.of(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip()));
+        // a small buffer refilled in the middle of the varints
+        assertDecoded(new ByteArrayCcInput(new ByteArrayInputStream(bytes), 16));
+    }
+
+    @Test
+    public void testSingleVarInts() throws IOException {
+        byte[] bytes = encoded();
+        for (CcInput in : new CcInput[]{CcInput.of(bytes, 0, bytes.length), CcInput.of(ByteBuffer.wrap(bytes))}) {
+            for (int i : ints)
+                Assert.assertEquals(i, in.readVarInt());
+            for (long l : longs)
+                Assert.assertEquals(l, in.readVarLong());
+            Assert.assertEquals(-1, in.readVarInt());
+            Assert.assertEquals(Long.MIN_VALUE, in.readVarLong());
+            Assert.assertEquals(bytes.length, in.position());
+        }
+    }
+
+    @Test
+    public void testVarIntArrays() throws IOException {
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        BinaryUtils.writeVarInts(out, ints, -1);
+        BinaryUtils.writeZigZagVarLongs(out, longs, -1);
+        byte[] bytes = out.toByteArray();
+        CcInput in = CcInput.of(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(ints, BinaryUtils.readVarInts(in, -1));
+        Assert.assertArrayEquals(longs, BinaryUtils.readZigZagVarLongs(in, -1));
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.gittorr.ccerial.nested.objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.gittorr.ccerial.CcSerializable;
+
+import java.util.List;
+
+@CcSerializable
+@Getter
+@Setter
+@AllArgsConstructor
+public class Department {
+
+    private String name;
+
+    private List<Employee> staff;
+
+}
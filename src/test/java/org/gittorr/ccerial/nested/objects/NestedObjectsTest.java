@@ -2,13 +2,16 @@ package org.gittorr.ccerial.nested.objects;
 
 import org.gittorr.ccerial.Ccerial;
 import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
 import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.utils.ClassIdentifierGenerator;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 
@@ -43,4 +46,72 @@ public class NestedObjectsTest {
         Assert.assertEquals(102.44, customerOrderDs.getCustomer().getBalance(), 0.001);
     }
 
+    @Test
+    public void testCachedSerializers() {
+        int features = SerializerFeature.FORCE_HEADERS.mask();
+        Serializer<OrderItem> serializer = Ccerial.getSerializer(OrderItem.class, features);
+        Assert.assertSame(serializer, Ccerial.getSerializer(OrderItem.class, features));
+        Assert.assertNotSame(serializer, Ccerial.getSerializer(OrderItem.class, 0));
+        Assert.assertTrue(serializer.isFeatureEnabled(SerializerFeature.FORCE_HEADERS));
+        Assert.assertEquals(features, serializer.getFeatures());
+        Assert.assertSame(serializer, Ccerial.getSerializer(OrderItem.class).withFeatures(SerializerFeature.FORCE_HEADERS));
+    }
+
+    @Test
+    public void testSerializerByObjectId() {
+        int oid = ClassIdentifierGenerator.INSTANCE.generateIdentifier(Customer.class.getName());
+        Assert.assertSame(Ccerial.getSerializer(Customer.class), Ccerial.getSerializer(oid));
+    }
+
+    @Test
+    public void testMutuallyNestedClasses() throws IOException {
+        // each class links the other, so their serializers can't resolve each other at construction
+        Department sales = new Department("Sales", List.of(new Employee("Ann", List.of()), new Employee("Bob", List.of())));
+        Department board = new Department("Board", List.of(new Employee("Eve", List.of(sales))));
+
+        Serializer<Department> serializer = Ccerial.getSerializer(Department.class, SerializerFeature.FORCE_VARIABLE_SIZE);
+        byte[] data = serializer.toBytes(board);
+        Department back = serializer.deserialize(data, 0, data.length);
+        Employee eve = back.getStaff().get(0);
+        Assert.assertEquals("Eve", eve.getName());
+        Assert.assertEquals("Sales", eve.getManagedDepartments().get(0).getName());
+        Assert.assertEquals("Bob", eve.getManagedDepartments().get(0).getStaff().get(1).getName());
+    }
+
+    @Test
+    public void testNullItem() throws IOException {
+        CustomerOrder co = new CustomerOrder(5.9, Arrays.asList(new OrderItem("Bread", 4.45, 1), null, new OrderItem("Milk", 1.45, 1)),
+                new Customer("Joe", "Maltson", 32, 102.44));
+
+        // items are written without a marker, a null one can't be read back
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+        Assert.assertThrows(IllegalArgumentException.class, () -> serializer.toBytes(co));
+
+        Serializer<CustomerOrder> tracking = Ccerial.getSerializer(CustomerOrder.class, SerializerFeature.TRACK_REFERENCES);
+        byte[] data = tracking.toBytes(co);
+        CustomerOrder back = tracking.deserialize(data, 0, data.length);
+        Assert.assertEquals(3, back.getItems().size());
+        Assert.assertNull(back.getItems().get(1));
+        Assert.assertEquals("Milk", back.getItems().get(2).getDescription());
+        Assert.assertEquals("Joe", back.getCustomer().getName());
+    }
+
+    @Test
+    public void testOtherCustomers() throws IOException {
+        Serializer<CustomerOrder> serializer = Ccerial.getSerializer(CustomerOrder.class);
+
+        // only Customer itself goes through the linked serializer, the header still tells the others apart
+        CustomerOrder noCustomer = new CustomerOrder(1.45, List.of(new OrderItem("Milk", 1.45, 1)), null);
+        byte[] data = serializer.toBytes(noCustomer);
+        Assert.assertNull(serializer.deserialize(data, 0, data.length).getCustomer());
+
+        VipCustomer vip = new VipCustomer();
+        vip.setTier(3);
+        CustomerOrder vipOrder = new CustomerOrder(1.45, List.of(new OrderItem("Milk", 1.45, 1)), vip);
+        data = serializer.toBytes(vipOrder);
+        Customer back = serializer.deserialize(data, 0, data.length).getCustomer();
+        Assert.assertEquals(VipCustomer.class, back.getClass());
+        Assert.assertEquals(3, ((VipCustomer) back).getTier());
+    }
+
 }
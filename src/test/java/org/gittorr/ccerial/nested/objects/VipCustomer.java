@@ -0,0 +1,18 @@
+package org.gittorr.ccerial.nested.objects;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+
+@CcSerializable(accessorType = AccessorType.SETTER)
+@Getter
+@Setter
+@NoArgsConstructor
+public class VipCustomer extends Customer {
+
+    private int tier;
+
+}
@@ -0,0 +1,20 @@
+package org.gittorr.ccerial.nested.polymorphic;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable
+@Getter
+@Setter
+@AllArgsConstructor
+public class Circle implements Shape {
+
+    private double radius;
+
+    @Override
+    public double area() {
+        return Math.PI * radius * radius;
+    }
+}
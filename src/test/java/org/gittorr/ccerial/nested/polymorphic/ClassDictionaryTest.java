@@ -0,0 +1,62 @@
+package org.gittorr.ccerial.nested.polymorphic;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.io.ByteArrayCcOutput;
+import org.gittorr.ccerial.io.CcInput;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ClassDictionaryTest {
+
+    private static Drawing drawing(int shapes) {
+        List<Shape> list = new ArrayList<>();
+        for (int i = 0; i < shapes; i++)
+            list.add(i % 2 == 0 ? new Circle(i) : new Square(i));
+        return new Drawing(list, "grid");
+    }
+
+    @Test
+    public void testOneTagPerClass() throws IOException {
+        Serializer<Drawing> plain = Ccerial.getSerializer(Drawing.class);
+        Serializer<Drawing> serializer = plain.withFeatures(SerializerFeature.CLASS_DICTIONARY);
+        Drawing drawing = drawing(1000);
+        byte[] bytes = serializer.toBytes(drawing);
+        // a byte of tag for each shape instead of 8 bytes of header, and the two identifiers once
+        Assert.assertEquals(plain.toBytes(drawing).length - 1000 * 7 + 2 * 4, bytes.length);
+
+        Drawing back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals(1000, back.getShapes().size());
+        Assert.assertTrue(back.getShapes().get(998) instanceof Circle);
+        Assert.assertEquals(999 * 999, back.getShapes().get(999).area(), 0d);
+    }
+
+    @Test
+    public void testSessionAcrossObjects() throws IOException {
+        Serializer<Drawing> serializer = Ccerial.getSerializer(Drawing.class, SerializerFeature.CLASS_DICTIONARY);
+        Drawing drawing = drawing(2);
+        drawing.getShapes().add(null);
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        serializer.serialize(out, drawing);
+        long first = out.position();
+        serializer.serialize(out, drawing);
+        // the second drawing only refers to the classes written with the first one
+        Assert.assertEquals(first - 2 * 4, out.position() - first);
+
+        byte[] bytes = out.toByteArray();
+        CcInput in = CcInput.of(bytes, 0, bytes.length);
+        for (int i = 0; i < 2; i++) {
+            Drawing back = serializer.deserialize(in);
+            Assert.assertTrue(back.getShapes().get(0) instanceof Circle);
+            Assert.assertTrue(back.getShapes().get(1) instanceof Square);
+            Assert.assertNull(back.getShapes().get(2));
+        }
+        Assert.assertEquals(bytes.length, in.position());
+    }
+
+}
@@ -0,0 +1,19 @@
+package org.gittorr.ccerial.nested.polymorphic;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.gittorr.ccerial.CcSerializable;
+
+import java.util.List;
+
+@CcSerializable
+@Getter
+@Setter
+@AllArgsConstructor
+public class Drawing {
+
+    private List<Shape> shapes;
+
+    private String title;
+}
@@ -0,0 +1,91 @@
+package org.gittorr.ccerial.nested.polymorphic;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+public class PolymorphicTest {
+
+    private static final Drawing DRAWING = new Drawing(List.of(new Circle(1.5), new Square(3), new Circle(2)), "sketch");
+
+    private void testRead(InputStream in) throws IOException {
+        Serializer<Drawing> serializer = Ccerial.getSerializer(Drawing.class);
+        for (int i = 0; i < 2; i++) {
+            Drawing drawing = serializer.deserialize(in);
+            Assert.assertEquals(3, drawing.getShapes().size());
+            Assert.assertTrue(drawing.getShapes().get(1) instanceof Square);
+            Assert.assertEquals(9, drawing.getShapes().get(1).area(), 0d);
+            Assert.assertEquals(2, ((Circle) drawing.getShapes().get(2)).getRadius(), 0d);
+            Assert.assertEquals("sketch", drawing.getTitle());
+        }
+        Assert.assertEquals(-1, in.read());
+    }
+
+    private byte[] twoDrawings() throws IOException {
+        Serializer<Drawing> serializer = Ccerial.getSerializer(Drawing.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serialize(bos, DRAWING);
+        serializer.serialize(bos, DRAWING);
+        return bos.toByteArray();
+    }
+
+    @Test
+    public void testMarkableStream() throws IOException {
+        testRead(new ByteArrayInputStream(twoDrawings()));
+    }
+
+    @Test
+    public void testNonMarkableStream() throws IOException {
+        testRead(new FilterInputStream(new ByteArrayInputStream(twoDrawings())) { });
+    }
+
+    @Test
+    public void testNullShape() throws IOException {
+        Serializer<Drawing> serializer = Ccerial.getSerializer(Drawing.class);
+        byte[] bytes = serializer.toBytes(new Drawing(Arrays.asList(new Circle(1), null, new Square(2)), "grid"));
+        Drawing back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals(3, back.getShapes().size());
+        Assert.assertNull(back.getShapes().get(1));
+        Assert.assertEquals(4, back.getShapes().get(2).area(), 0d);
+        Assert.assertEquals("grid", back.getTitle());
+    }
+
+    @Test
+    public void testTrailingNullShape() throws IOException {
+        Serializer<Drawing> serializer = Ccerial.getSerializer(Drawing.class);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        serializer.serialize(bos, new Drawing(Arrays.asList(new Circle(1), null), ""));
+        serializer.serialize(bos, new Drawing(Arrays.asList(new Square(3), null), null));
+        ByteArrayInputStream in = new ByteArrayInputStream(bos.toByteArray());
+        Drawing first = serializer.deserialize(in);
+        Assert.assertTrue(first.getShapes().get(0) instanceof Circle);
+        Assert.assertNull(first.getShapes().get(1));
+        Drawing second = serializer.deserialize(in);
+        Assert.assertEquals(9, second.getShapes().get(0).area(), 0d);
+        Assert.assertNull(second.getShapes().get(1));
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testSkipHeaders() throws IOException {
+        // the shapes keep their headers, only the drawing skips its own
+        Serializer<Drawing> serializer = Ccerial.getSerializer(Drawing.class, SerializerFeature.SKIP_HEADERS);
+        byte[] bytes = serializer.toBytes(DRAWING);
+        Drawing back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals(3, back.getShapes().size());
+        Assert.assertEquals(9, back.getShapes().get(1).area(), 0d);
+        Assert.assertEquals(2, ((Circle) back.getShapes().get(2)).getRadius(), 0d);
+        Assert.assertEquals("sketch", back.getTitle());
+    }
+
+}
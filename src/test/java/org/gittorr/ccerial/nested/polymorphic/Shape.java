@@ -0,0 +1,7 @@
+package org.gittorr.ccerial.nested.polymorphic;
+
+public interface Shape {
+
+    double area();
+
+}
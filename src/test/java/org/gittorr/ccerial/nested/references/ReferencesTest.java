@@ -0,0 +1,64 @@
+package org.gittorr.ccerial.nested.references;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.gittorr.ccerial.io.ByteArrayCcOutput;
+import org.gittorr.ccerial.io.CcInput;
+import org.gittorr.ccerial.nested.objects.CustomerOrder;
+import org.gittorr.ccerial.nested.objects.OrderItem;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class ReferencesTest {
+
+    @Test
+    public void testSharedObjects() throws IOException {
+        Customer customer = new Customer("Joe", "Maltson", 32, 102.44);
+        OrderItem bread = new OrderItem("Bread", 4.45, 5);
+        Serializer<CustomerOrder> plain = Ccerial.getSerializer(CustomerOrder.class);
+        Serializer<CustomerOrder> serializer = plain.withFeatures(SerializerFeature.TRACK_REFERENCES);
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        for (int i = 0; i < 500; i++)
+            serializer.serialize(out, new CustomerOrder(i, List.of(bread, bread), customer));
+        byte[] bytes = out.toByteArray();
+        // the customer and the item are written with the first order only
+        Assert.assertTrue(bytes.length < 500 * plain.toBytes(new CustomerOrder(0, List.of(bread, bread), customer)).length / 4);
+
+        CcInput in = CcInput.of(bytes, 0, bytes.length);
+        CustomerOrder first = serializer.deserialize(in);
+        Assert.assertSame(first.getItems().get(0), first.getItems().get(1));
+        Assert.assertEquals("Maltson", first.getCustomer().getLastName());
+        for (int i = 1; i < 500; i++) {
+            CustomerOrder order = serializer.deserialize(in);
+            Assert.assertEquals(i, order.getTotal(), 0d);
+            Assert.assertSame(first.getCustomer(), order.getCustomer());
+            Assert.assertSame(first.getItems().get(0), order.getItems().get(1));
+        }
+    }
+
+    @Test
+    public void testCycles() throws IOException {
+        TreeNode root = new TreeNode("root", null);
+        TreeNode left = new TreeNode("left", root);
+        new TreeNode("right", root);
+        new TreeNode("leaf", left);
+        Serializer<TreeNode> serializer = Ccerial.getSerializer(TreeNode.class, SerializerFeature.TRACK_REFERENCES);
+        byte[] bytes = serializer.toBytes(root);
+
+        TreeNode back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals("root", back.getName());
+        Assert.assertNull(back.getParent());
+        Assert.assertEquals(2, back.getChildren().size());
+        TreeNode backLeft = back.getChildren().get(0);
+        Assert.assertSame(back, backLeft.getParent());
+        Assert.assertSame(back, back.getChildren().get(1).getParent());
+        Assert.assertEquals("leaf", backLeft.getChildren().get(0).getName());
+        Assert.assertSame(backLeft, backLeft.getChildren().get(0).getParent());
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.gittorr.ccerial.nested.references;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@CcSerializable(accessorType = AccessorType.SETTER)
+@Getter
+@Setter
+@NoArgsConstructor
+public class TreeNode {
+
+    private String name;
+
+    private TreeNode parent;
+
+    private List<TreeNode> children = new ArrayList<>();
+
+    public TreeNode(String name, TreeNode parent) {
+        this.name = name;
+        this.parent = parent;
+        if (parent != null)
+            parent.children.add(this);
+    }
+
+}
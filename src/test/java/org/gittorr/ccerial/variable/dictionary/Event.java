@@ -0,0 +1,17 @@
+package org.gittorr.ccerial.variable.dictionary;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+
+import java.util.List;
+import java.util.Map;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Event(
+        String status,
+        String source,
+        List<String> tags,
+        Map<String, Integer> counters
+) {
+
+}
@@ -0,0 +1,59 @@
+package org.gittorr.ccerial.variable.dictionary;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.io.ByteArrayCcOutput;
+import org.gittorr.ccerial.io.CcInput;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public class StringDictionaryTest {
+
+    private static Event event(int i) {
+        return new Event(i % 2 == 0 ? "OK" : "NOT_FOUND", "frontend-" + (i % 3), List.of("http", "GET"),
+                Map.of("latency", i, "retries", 0));
+    }
+
+    private static byte[] write(Serializer<Event> serializer, int count) throws IOException {
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        for (int i = 0; i < count; i++)
+            serializer.serialize(out, event(i));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testRepeatedStrings() throws IOException {
+        Serializer<Event> plain = Ccerial.getSerializer(Event.class);
+        Serializer<Event> serializer = plain.withFeatures(SerializerFeature.STRING_DICTIONARY);
+        byte[] bytes = write(serializer, 100);
+        Assert.assertTrue(bytes.length < write(plain, 100).length / 2);
+
+        CcInput in = CcInput.of(bytes, 0, bytes.length);
+        Event first = serializer.deserialize(in);
+        Event second = serializer.deserialize(in);
+        Assert.assertEquals(event(0), first);
+        Assert.assertEquals(event(1), second);
+        for (int i = 2; i < 100; i++) {
+            Event back = serializer.deserialize(in);
+            Assert.assertEquals(event(i), back);
+            Assert.assertSame((i % 2 == 0 ? first : second).status(), back.status());
+            Assert.assertSame(first.tags().get(0), back.tags().get(0));
+        }
+        Assert.assertEquals(bytes.length, in.position());
+    }
+
+    @Test
+    public void testSessionPerOutput() throws IOException {
+        Serializer<Event> serializer = Ccerial.getSerializer(Event.class, SerializerFeature.STRING_DICTIONARY);
+        // every call of toBytes is a session of its own
+        byte[] bytes = serializer.toBytes(event(0));
+        Assert.assertArrayEquals(bytes, serializer.toBytes(event(0)));
+        Assert.assertEquals(event(0), serializer.deserialize(bytes, 0, bytes.length));
+    }
+
+}
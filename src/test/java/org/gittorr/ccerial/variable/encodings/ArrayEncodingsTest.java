@@ -0,0 +1,206 @@
+package org.gittorr.ccerial.variable.encodings;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.gittorr.ccerial.io.ByteArrayCcOutput;
+import org.gittorr.ccerial.io.CcInput;
+import org.gittorr.ccerial.utils.BinaryUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+public class ArrayEncodingsTest {
+
+    private static final Random RANDOM = new Random(3);
+
+    @Test
+    public void testGroupCodecs() throws IOException {
+        for (int n : new int[]{0, 1, 3, 4, 5, 1000}) {
+            int[] is = RANDOM.ints(n).map(i -> i >>> RANDOM.nextInt(32)).toArray();
+            long[] ls = RANDOM.longs(n).map(l -> l >>> RANDOM.nextInt(64)).toArray();
+            ByteArrayCcOutput out = new ByteArrayCcOutput();
+            BinaryUtils.writeGroupVarInts(out, is, -1);
+            BinaryUtils.writeStreamVByteInts(out, is, -1);
+            BinaryUtils.writeGroupVarLongs(out, ls, -1);
+            BinaryUtils.writeStreamVByteLongs(out, ls, -1);
+            out.writeByte(42);
+            byte[] bytes = out.toByteArray();
+            CcInput in = CcInput.of(bytes, 0, bytes.length);
+            Assert.assertArrayEquals(is, BinaryUtils.readGroupVarInts(in, -1));
+            Assert.assertArrayEquals(is, BinaryUtils.readStreamVByteInts(in, -1));
+            Assert.assertArrayEquals(ls, BinaryUtils.readGroupVarLongs(in, -1));
+            Assert.assertArrayEquals(ls, BinaryUtils.readStreamVByteLongs(in, -1));
+            Assert.assertEquals(42, in.readByte());
+        }
+    }
+
+    @Test
+    public void testEncodedFields() throws IOException {
+        PostingList list = new PostingList(new int[]{1, 300, 70000, -1, 5}, new int[]{1, 2, 3, 4, 5, 6, 7, 8},
+                new long[]{1L, Long.MAX_VALUE, 1L << 40}, new long[]{9L});
+        Serializer<PostingList> serializer = Ccerial.getSerializer(PostingList.class);
+        byte[] bytes = serializer.toBytes(list);
+        // documents: count, size, 2 controls and 1 + 2 + 3 + 4 + 1 bytes
+        Assert.assertEquals(5, bytes[0]);
+        Assert.assertEquals(2 + 11, bytes[1]);
+        // frequencies: count, 2 controls and 8 bytes
+        Assert.assertEquals(8, bytes[2 + 13]);
+        Assert.assertEquals(2 + 13 + 1 + 2 + 8 + (1 + 1 + 2 + 1 + 8 + 6) + (2 + 3), bytes.length);
+
+        PostingList back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(list.documents(), back.documents());
+        Assert.assertArrayEquals(list.frequencies(), back.frequencies());
+        Assert.assertArrayEquals(list.timestamps(), back.timestamps());
+        Assert.assertArrayEquals(new long[]{9L, 0L, 0L}, back.offsets());
+    }
+
+    @Test
+    public void testDeltaFields() throws IOException {
+        long start = 1_700_000_000_000L;
+        long[] timestamps = LongStream.range(0, 100).map(i -> start + i * 1000).toArray();
+        timestamps[50] += 3;
+        int[] ids = {10, 12, 13, 20, 19, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        List<Long> versions = new ArrayList<>(List.of(start, start + 1, start - 5));
+        List<Integer> offsets = new ArrayList<>(List.of(100, 200, 300, 400, 0));
+        Series series = new Series(timestamps, ids, versions, offsets);
+        Serializer<Series> serializer = Ccerial.getSerializer(Series.class);
+        byte[] bytes = serializer.toBytes(series);
+        // timestamps: count, first value, first delta and a byte for each other delta of delta
+        int timestampsSize = 1 + 6 + 2 + 98;
+        Assert.assertEquals(timestampsSize + (1 + 5 + 5 + 1) + (1 + 6 + 1 + 1) + (1 + 2 + 2 + 1 + 1 + 2), bytes.length);
+
+        Series back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(timestamps, back.timestamps());
+        Assert.assertArrayEquals(ids, back.ids());
+        Assert.assertEquals(versions, back.versions());
+        Assert.assertEquals(offsets, back.offsets());
+    }
+
+    @Test
+    public void testXorFields() throws IOException {
+        double[] temperatures = new double[1000];
+        for (int i = 0; i < temperatures.length; i++)
+            temperatures[i] = 21.5 + (i / 100) * 0.25;
+        temperatures[500] = Double.NaN;
+        float[] loads = {0.5f, 0.5f, 0.75f, -1f, Float.MIN_VALUE, Float.MAX_VALUE, 0f};
+        Gauges gauges = new Gauges(temperatures, loads);
+        Serializer<Gauges> serializer = Ccerial.getSerializer(Gauges.class);
+        byte[] bytes = serializer.toBytes(gauges);
+        // mostly repeated values take a bit each
+        Assert.assertTrue(bytes.length < 200);
+
+        Gauges back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(temperatures, back.temperatures(), 0d);
+        Assert.assertArrayEquals(loads, back.loads(), 0f);
+    }
+
+    @Test
+    public void testXorCodecs() throws IOException {
+        double[] ds = RANDOM.doubles(333).toArray();
+        float[] fs = new float[]{1f, 2f, 3f, Float.NaN, Float.NEGATIVE_INFINITY};
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        BinaryUtils.writeXorDoubles(out, ds, -1);
+        BinaryUtils.writeXorFloats(out, fs, 8);
+        BinaryUtils.writeXorDoubles(out, null, -1);
+        out.writeByte(42);
+        byte[] bytes = out.toByteArray();
+        CcInput in = CcInput.of(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(ds, BinaryUtils.readXorDoubles(in, -1), 0d);
+        Assert.assertArrayEquals(new float[]{1f, 2f, 3f, Float.NaN, Float.NEGATIVE_INFINITY, 0f, 0f, 0f}, BinaryUtils.readXorFloats(in, 8), 0f);
+        Assert.assertEquals(0, BinaryUtils.readXorDoubles(in, -1).length);
+        Assert.assertEquals(42, in.readByte());
+    }
+
+    @Test
+    public void testBitPackedFields() throws IOException {
+        int[] codes = RANDOM.ints(300, 1000, 1201).toArray();
+        List<Integer> levels = new ArrayList<>(List.of(7, 7, 7));
+        SensorReadings readings = new SensorReadings(codes, levels);
+        Serializer<SensorReadings> serializer = Ccerial.getSerializer(SensorReadings.class);
+        byte[] bytes = serializer.toBytes(readings);
+        // codes: count, min and width, then 8 bits per value; levels: count, min and a zero width
+        Assert.assertEquals(2 + 2 + 1 + 300 + (1 + 1 + 1), bytes.length);
+
+        SensorReadings back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(codes, back.codes());
+        Assert.assertEquals(levels, back.levels());
+    }
+
+    @Test
+    public void testBitPackedCodec() throws IOException {
+        for (int n : new int[]{0, 1, 127, 128, 129, 1000}) {
+            int[] wide = RANDOM.ints(n).toArray();
+            int[] narrow = RANDOM.ints(n, -5, 9).toArray();
+            ByteArrayCcOutput out = new ByteArrayCcOutput();
+            BinaryUtils.writeBitPackedInts(out, wide, -1);
+            BinaryUtils.writeBitPackedInts(out, narrow, n + 3);
+            out.writeByte(42);
+            byte[] bytes = out.toByteArray();
+            CcInput in = CcInput.of(bytes, 0, bytes.length);
+            Assert.assertArrayEquals(wide, BinaryUtils.readBitPackedInts(in, -1));
+            int[] padded = BinaryUtils.readBitPackedInts(in, n + 3);
+            Assert.assertArrayEquals(narrow, Arrays.copyOf(padded, n));
+            Assert.assertEquals(0, padded[n + 2]);
+            Assert.assertEquals(42, in.readByte());
+        }
+    }
+
+    @Test
+    public void testRunLengthFields() throws IOException {
+        int[] buckets = new int[1000];
+        buckets[10] = 5;
+        buckets[11] = 6;
+        buckets[500] = 7;
+        byte[] flags = {1, 1, 1, 1, 2, 3, 0, 0, 0};
+        double[] weights = {0.5, -0d, -0d, -0d};
+        Histogram histogram = new Histogram(buckets, flags, weights);
+        Serializer<Histogram> serializer = Ccerial.getSerializer(Histogram.class);
+        byte[] bytes = serializer.toBytes(histogram);
+        // buckets: zeros, two literals, zeros, a literal, zeros; flags: count, a repeated run, two literals, zeros
+        int bucketsSize = (1 + 4) + (1 + 8) + (2 + 4) + (1 + 4) + (2 + 4);
+        int flagsSize = 1 + (1 + 1) + (1 + 2) + (1 + 1);
+        int plainSize = bytes.length;
+        Histogram back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(buckets, back.buckets());
+        Assert.assertArrayEquals(flags, back.flags());
+
+        Serializer<Histogram> runLength = serializer.withFeatures(SerializerFeature.RUN_LENGTH_ARRAYS);
+        bytes = runLength.toBytes(histogram);
+        // weights: a literal and two repeated runs, negative zeros then the padding
+        Assert.assertEquals(bucketsSize + flagsSize + (1 + 8) + (1 + 8) + (1 + 8), bytes.length);
+        Assert.assertTrue(bytes.length < plainSize);
+        back = runLength.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(buckets, back.buckets());
+        double[] padded = Arrays.copyOf(weights, 64);
+        Assert.assertArrayEquals(padded, back.weights(), 0d);
+        Assert.assertEquals(Double.doubleToRawLongBits(-0d), Double.doubleToRawLongBits(back.weights()[3]));
+    }
+
+    @Test
+    public void testRunLengthCodecs() throws IOException {
+        long[] ls = RANDOM.longs(1000, 0, 3).toArray();
+        char[] cs = "aaabcccccd".toCharArray();
+        float[] fs = {Float.NaN, Float.NaN, Float.NaN, 1f};
+        ByteArrayCcOutput out = new ByteArrayCcOutput();
+        BinaryUtils.writeRunLengthLongs(out, ls, -1);
+        BinaryUtils.writeRunLengthChars(out, cs, 12);
+        BinaryUtils.writeRunLengthFloats(out, fs, -1);
+        BinaryUtils.writeRunLengthInts(out, null, -1);
+        out.writeByte(42);
+        byte[] bytes = out.toByteArray();
+        CcInput in = CcInput.of(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(ls, BinaryUtils.readRunLengthLongs(in, -1));
+        Assert.assertArrayEquals("aaabcccccd\0\0".toCharArray(), BinaryUtils.readRunLengthChars(in, 12));
+        Assert.assertArrayEquals(fs, BinaryUtils.readRunLengthFloats(in, -1), 0f);
+        Assert.assertEquals(0, BinaryUtils.readRunLengthInts(in, -1).length);
+        Assert.assertEquals(42, in.readByte());
+    }
+
+}
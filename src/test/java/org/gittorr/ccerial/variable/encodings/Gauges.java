@@ -0,0 +1,14 @@
+package org.gittorr.ccerial.variable.encodings;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.ArrayEncoding;
+import org.gittorr.ccerial.CcArray;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Gauges(
+        @CcArray(encoding = ArrayEncoding.XOR_FLOAT) double[] temperatures,
+        @CcArray(encoding = ArrayEncoding.XOR_FLOAT) float[] loads
+) {
+
+}
@@ -0,0 +1,15 @@
+package org.gittorr.ccerial.variable.encodings;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.ArrayEncoding;
+import org.gittorr.ccerial.CcArray;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Histogram(
+        @CcArray(count = 1000, encoding = ArrayEncoding.RUN_LENGTH) int[] buckets,
+        @CcArray(encoding = ArrayEncoding.RUN_LENGTH) byte[] flags,
+        @CcArray(count = 64) double[] weights
+) {
+
+}
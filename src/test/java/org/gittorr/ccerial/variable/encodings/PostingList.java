@@ -0,0 +1,16 @@
+package org.gittorr.ccerial.variable.encodings;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.ArrayEncoding;
+import org.gittorr.ccerial.CcArray;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record PostingList(
+        @CcArray(encoding = ArrayEncoding.GROUP_VARINT) int[] documents,
+        @CcArray(encoding = ArrayEncoding.STREAM_VBYTE) int[] frequencies,
+        @CcArray(encoding = ArrayEncoding.GROUP_VARINT) long[] timestamps,
+        @CcArray(encoding = ArrayEncoding.STREAM_VBYTE, count = 3) long[] offsets
+) {
+
+}
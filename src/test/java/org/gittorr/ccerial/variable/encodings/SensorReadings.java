@@ -0,0 +1,16 @@
+package org.gittorr.ccerial.variable.encodings;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.ArrayEncoding;
+import org.gittorr.ccerial.CcArray;
+import org.gittorr.ccerial.CcSerializable;
+
+import java.util.List;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record SensorReadings(
+        @CcArray(encoding = ArrayEncoding.FRAME_OF_REFERENCE) int[] codes,
+        @CcArray(encoding = ArrayEncoding.FRAME_OF_REFERENCE) List<Integer> levels
+) {
+
+}
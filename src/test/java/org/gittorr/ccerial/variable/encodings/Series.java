@@ -0,0 +1,18 @@
+package org.gittorr.ccerial.variable.encodings;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcArray;
+import org.gittorr.ccerial.CcSerializable;
+import org.gittorr.ccerial.DeltaEncoding;
+
+import java.util.List;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Series(
+        @CcArray(delta = DeltaEncoding.DELTA_OF_DELTA) long[] timestamps,
+        @CcArray(delta = DeltaEncoding.DELTA) int[] ids,
+        @CcArray(delta = DeltaEncoding.DELTA) List<Long> versions,
+        @CcArray(delta = DeltaEncoding.DELTA_OF_DELTA) List<Integer> offsets
+) {
+
+}
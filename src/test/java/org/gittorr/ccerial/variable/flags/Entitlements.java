@@ -0,0 +1,22 @@
+package org.gittorr.ccerial.variable.flags;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Entitlements(
+        int userId,
+        boolean read,
+        boolean write,
+        boolean delete,
+        boolean share,
+        boolean export,
+        boolean admin,
+        boolean billing,
+        boolean audit,
+        boolean beta,
+        boolean[] regions,
+        short[] quotas
+) {
+
+}
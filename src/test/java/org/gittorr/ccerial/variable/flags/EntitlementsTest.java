@@ -0,0 +1,50 @@
+package org.gittorr.ccerial.variable.flags;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class EntitlementsTest {
+
+    @Test
+    public void testPackedFlags() throws IOException {
+        Entitlements entitlements = new Entitlements(7, true, false, false, true, false, false, false, true, true,
+                new boolean[0], new short[0]);
+        Serializer<Entitlements> serializer = Ccerial.getSerializer(Entitlements.class);
+        byte[] bytes = serializer.toBytes(entitlements);
+        // the user id, two bytes of flags and the empty arrays
+        Assert.assertArrayEquals(new byte[]{7, (byte) 0b10001001, 0b1, 0, 0}, bytes);
+
+        Entitlements back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals(7, back.userId());
+        Assert.assertTrue(back.read());
+        Assert.assertFalse(back.write());
+        Assert.assertFalse(back.delete());
+        Assert.assertTrue(back.share());
+        Assert.assertFalse(back.export());
+        Assert.assertFalse(back.admin());
+        Assert.assertFalse(back.billing());
+        Assert.assertTrue(back.audit());
+        Assert.assertTrue(back.beta());
+    }
+
+    @Test
+    public void testBooleansAndShorts() throws IOException {
+        boolean[] regions = {true, false, true, true, false, false, false, false, true, false};
+        short[] quotas = {0, 1, -1, Short.MAX_VALUE, Short.MIN_VALUE};
+        Entitlements entitlements = new Entitlements(1, false, false, false, false, false, false, false, false, false,
+                regions, quotas);
+        Serializer<Entitlements> serializer = Ccerial.getSerializer(Entitlements.class);
+        byte[] bytes = serializer.toBytes(entitlements);
+        // 1 + 2 flags + 1 + 2 regions + 1 + 10 quotas
+        Assert.assertEquals(17, bytes.length);
+
+        Entitlements back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertArrayEquals(regions, back.regions());
+        Assert.assertArrayEquals(quotas, back.quotas());
+    }
+
+}
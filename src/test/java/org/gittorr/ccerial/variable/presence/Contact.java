@@ -0,0 +1,45 @@
+package org.gittorr.ccerial.variable.presence;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable(accessorType = AccessorType.SETTER, presenceBitmap = true)
+public class Contact {
+
+    private String email;
+    private Long phone;
+    private boolean verified;
+
+    public Contact() {
+    }
+
+    public Contact(String email, Long phone, boolean verified) {
+        this.email = email;
+        this.phone = phone;
+        this.verified = verified;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Long getPhone() {
+        return phone;
+    }
+
+    public void setPhone(Long phone) {
+        this.phone = phone;
+    }
+
+    public boolean getVerified() {
+        return verified;
+    }
+
+    public void setVerified(boolean verified) {
+        this.verified = verified;
+    }
+}
@@ -0,0 +1,59 @@
+package org.gittorr.ccerial.variable.presence;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class PresenceBitmapTest {
+
+    @Test
+    public void testAbsentFields() throws IOException {
+        Profile profile = new Profile(null, 3, 0, null, null, null, null);
+        Serializer<Profile> serializer = Ccerial.getSerializer(Profile.class);
+        byte[] bytes = serializer.toBytes(profile);
+        // the bitmap, the visits and the age
+        Assert.assertArrayEquals(new byte[]{0b10, 3, 0}, bytes);
+
+        Profile back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertNull(back.nickname());
+        Assert.assertEquals(3, back.visits());
+        Assert.assertEquals(Integer.valueOf(0), back.age());
+        Assert.assertNull(back.score());
+        Assert.assertNull(back.customer());
+        Assert.assertNull(back.sessions());
+        Assert.assertNull(back.tags());
+    }
+
+    @Test
+    public void testPresentFields() throws IOException {
+        Profile profile = new Profile("joe", 1, 40, 2.5, new Customer("Joe", "Maltson", 32, 102.44),
+                new long[0], List.of("a", "b"));
+        Serializer<Profile> serializer = Ccerial.getSerializer(Profile.class);
+        byte[] bytes = serializer.toBytes(profile);
+        Assert.assertEquals(0b111111, bytes[0]);
+
+        Profile back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals("joe", back.nickname());
+        Assert.assertEquals(Double.valueOf(2.5), back.score());
+        Assert.assertEquals("Maltson", back.customer().getLastName());
+        Assert.assertEquals(0, back.sessions().length);
+        Assert.assertEquals(List.of("a", "b"), back.tags());
+    }
+
+    @Test
+    public void testSetters() throws IOException {
+        Serializer<Contact> serializer = Ccerial.getSerializer(Contact.class);
+        byte[] bytes = serializer.toBytes(new Contact(null, 0L, true));
+        Assert.assertEquals(3, bytes.length);
+        Contact back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertNull(back.getEmail());
+        Assert.assertEquals(Long.valueOf(0L), back.getPhone());
+        Assert.assertTrue(back.getVerified());
+    }
+
+}
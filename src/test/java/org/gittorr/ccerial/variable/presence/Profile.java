@@ -0,0 +1,20 @@
+package org.gittorr.ccerial.variable.presence;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+import org.gittorr.ccerial.fixed.pojos.Customer;
+
+import java.util.List;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR, presenceBitmap = true)
+public record Profile(
+        String nickname,
+        int visits,
+        Integer age,
+        Double score,
+        Customer customer,
+        long[] sessions,
+        List<String> tags
+) {
+
+}
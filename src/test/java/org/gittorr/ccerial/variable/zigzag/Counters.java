@@ -0,0 +1,13 @@
+package org.gittorr.ccerial.variable.zigzag;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcSerializable;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Counters(
+        int low,
+        long high,
+        long[] samples
+) {
+
+}
@@ -0,0 +1,18 @@
+package org.gittorr.ccerial.variable.zigzag;
+
+import org.gittorr.ccerial.AccessorType;
+import org.gittorr.ccerial.CcArray;
+import org.gittorr.ccerial.CcSerializable;
+import org.gittorr.ccerial.CcValue;
+
+import java.util.List;
+
+@CcSerializable(accessorType = AccessorType.CONSTRUCTOR)
+public record Readings(
+        @CcValue(zigZag = true) int offset,
+        @CcValue(zigZag = true) long drift,
+        @CcArray(componentZigZag = true) int[] deltas,
+        @CcArray(componentZigZag = true) List<Long> corrections
+) {
+
+}
@@ -0,0 +1,49 @@
+package org.gittorr.ccerial.variable.zigzag;
+
+import org.gittorr.ccerial.Ccerial;
+import org.gittorr.ccerial.Serializer;
+import org.gittorr.ccerial.SerializerFeature;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class ZigZagTest {
+
+    @Test
+    public void testZigZagFields() throws IOException {
+        Readings readings = new Readings(-1, -64L, new int[]{-1, 1, -2, 2, Integer.MIN_VALUE}, List.of(-3L, Long.MIN_VALUE, Long.MAX_VALUE));
+        Serializer<Readings> serializer = Ccerial.getSerializer(Readings.class);
+        byte[] bytes = serializer.toBytes(readings);
+
+        // -1 and -64 take a single byte each, the first four deltas too
+        Assert.assertEquals(1, bytes[0]);
+        Assert.assertEquals(127, bytes[1]);
+        Assert.assertEquals(1 + 1 + (1 + 4 + 5) + (1 + 1 + 10 + 10), bytes.length);
+
+        Readings back = serializer.deserialize(bytes, 0, bytes.length);
+        Assert.assertEquals(-1, back.offset());
+        Assert.assertEquals(-64L, back.drift());
+        Assert.assertArrayEquals(readings.deltas(), back.deltas());
+        Assert.assertEquals(readings.corrections(), back.corrections());
+    }
+
+    @Test
+    public void testZigZagFeature() throws IOException {
+        Counters counters = new Counters(-2, -300L, new long[]{-1L, 0L, 1L});
+        Serializer<Counters> plain = Ccerial.getSerializer(Counters.class, SerializerFeature.FORCE_VARIABLE_SIZE);
+        Serializer<Counters> zigZag = Ccerial.getSerializer(Counters.class, SerializerFeature.FORCE_VARIABLE_SIZE, SerializerFeature.ZIGZAG_VARINTS);
+
+        byte[] plainBytes = plain.toBytes(counters);
+        byte[] zigZagBytes = zigZag.toBytes(counters);
+        Assert.assertEquals(5 + 10 + (1 + 10 + 1 + 1), plainBytes.length);
+        Assert.assertEquals(1 + 2 + (1 + 1 + 1 + 1), zigZagBytes.length);
+
+        Counters back = zigZag.deserialize(zigZagBytes, 0, zigZagBytes.length);
+        Assert.assertEquals(-2, back.low());
+        Assert.assertEquals(-300L, back.high());
+        Assert.assertArrayEquals(counters.samples(), back.samples());
+    }
+
+}